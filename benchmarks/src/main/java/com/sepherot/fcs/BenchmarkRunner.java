@@ -0,0 +1,54 @@
+package com.sepherot.fcs;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks, accepts the usual JMH options and writes the results as JSON unless another format is chosen
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public final class BenchmarkRunner {
+    /**
+     * File the results are written to if no other file is given
+     */
+    private static final String RESULT_FILE = "fcs-benchmarks.json";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        CommandLineOptions cmdOptions;
+        try {
+            cmdOptions = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        if(cmdOptions.shouldHelp()) {
+            cmdOptions.showHelp();
+            return;
+        }
+        if(cmdOptions.shouldList()) {
+            new Runner(cmdOptions).list();
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmdOptions);
+        if(!cmdOptions.getResultFormat().hasValue())
+            options.resultFormat(ResultFormatType.JSON);
+        if(!cmdOptions.getResult().hasValue())
+            options.result(RESULT_FILE);
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,134 @@
+package com.sepherot.fcs;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic directories of text files for the benchmarks
+ *
+ * The files consist of lines of random words, a share of the lines additionally contain one of the search terms. The
+ * words never contain a term, so the number of hits only depends on the hit density. The same seed always generates
+ * the same corpus, so results of different runs are comparable.
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public final class Corpus {
+    /**
+     * Seed used by all benchmarks
+     */
+    public static final long SEED = 42;
+
+    /**
+     * Number of files per directory, deeper directories are created for larger corpora
+     */
+    private static final int FILES_PER_DIRECTORY = 64;
+
+    private static final String[] WORDS = {
+        "public", "static", "final", "class", "return", "private", "import", "string", "value", "result",
+        "config", "buffer", "stream", "writer", "reader", "search", "index", "matcher", "walker", "cursor",
+        "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "tempor"
+    };
+
+    private static final String[] EXTENSIONS = {".txt", ".java", ".py", ".md"};
+
+    private Corpus() {
+    }
+
+    /**
+     * Return the search terms, none of them appears in the generated words
+     *
+     * @param count Number of terms
+     * @return Terms
+     */
+    public static List<String> terms(int count) {
+        List<String> terms = new ArrayList<>();
+        for(int i = 0; i < count; i++)
+            terms.add("needle" + i);
+        return terms;
+    }
+
+    /**
+     * Generate a directory tree of text files
+     *
+     * @param root Directory to create the files in
+     * @param files Number of files
+     * @param fileSize Approximate size of every file in bytes
+     * @param terms Number of different terms placed in the files
+     * @param density Share of lines containing a term, between 0 and 1
+     * @param seed Seed of the random generator
+     * @return Paths of the generated files
+     * @throws IOException Writing the files failed
+     */
+    public static List<Path> generate(Path root, int files, int fileSize, int terms, double density, long seed)
+            throws IOException {
+        Random random = new Random(seed);
+        List<String> needles = terms(terms);
+        List<Path> generated = new ArrayList<>();
+
+        for(int i = 0; i < files; i++) {
+            Path dir = root;
+            for(int d = i / FILES_PER_DIRECTORY; d > 0; d /= FILES_PER_DIRECTORY)
+                dir = dir.resolve("dir" + (d % FILES_PER_DIRECTORY));
+            Files.createDirectories(dir);
+
+            Path file = dir.resolve("file" + i + EXTENSIONS[i % EXTENSIONS.length]);
+            writeFile(file, fileSize, needles, density, random);
+            generated.add(file);
+        }
+        return generated;
+    }
+
+    /**
+     * Write a single file of random lines
+     *
+     * @param file Path to file
+     * @param fileSize Approximate size of the file in bytes
+     * @param needles Terms placed in the file
+     * @param density Share of lines containing a term, between 0 and 1
+     * @param random Random generator
+     * @throws IOException Writing the file failed
+     */
+    private static void writeFile(Path file, int fileSize, List<String> needles, double density, Random random)
+            throws IOException {
+        try(BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            long written = 0;
+            StringBuilder line = new StringBuilder();
+            while(written < fileSize) {
+                line.setLength(0);
+                int words = 4 + random.nextInt(8);
+                int hit = !needles.isEmpty() && random.nextDouble() < density ? random.nextInt(words) : -1;
+                for(int w = 0; w < words; w++) {
+                    if(w > 0)
+                        line.append(' ');
+                    if(w == hit)
+                        line.append(needles.get(random.nextInt(needles.size())));
+                    else
+                        line.append(WORDS[random.nextInt(WORDS.length)]);
+                }
+                line.append('\n');
+                writer.write(line.toString());
+                written += line.length();
+            }
+        }
+    }
+
+    /**
+     * Delete a generated corpus
+     *
+     * @param root Directory of the corpus
+     * @throws IOException Deleting failed
+     */
+    public static void delete(Path root) throws IOException {
+        FileUtils.deleteDirectory(root.toFile());
+    }
+}
@@ -0,0 +1,69 @@
+package com.sepherot.fcs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures walking through directory trees of different sizes
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirWalkerBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int files;
+
+    /**
+     * Extensions to filter by, empty to list all files
+     */
+    @Param({"", ".java"})
+    public String extensions;
+
+    private Path root;
+    private DirWalker walker;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("fcs-walker");
+        Corpus.generate(root, files, 64, 0, 0, Corpus.SEED);
+
+        List<String> allowed = extensions.isEmpty() ? Collections.emptyList() : Arrays.asList(extensions.split(","));
+        walker = new DirWalker(allowed, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Corpus.delete(root);
+    }
+
+    @Benchmark
+    public List<String> listFiles() {
+        return walker.listFiles(root.toString());
+    }
+}
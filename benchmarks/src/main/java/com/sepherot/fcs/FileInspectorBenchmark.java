@@ -0,0 +1,85 @@
+package com.sepherot.fcs;
+
+import com.sepherot.fcs.data.BinaryMode;
+import com.sepherot.fcs.data.SearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures searching a single file for different file sizes, numbers of terms and hit densities
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileInspectorBenchmark {
+    @Param({"4096", "65536", "1048576"})
+    public int fileSize;
+
+    @Param({"1", "8"})
+    public int terms;
+
+    /**
+     * Share of lines containing a term
+     */
+    @Param({"0.0", "0.01", "0.5"})
+    public double density;
+
+    private Path root;
+    private String file;
+    private TermMatcher matcher;
+    private String term;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("fcs-inspector");
+        file = Corpus.generate(root, 1, fileSize, terms, density, Corpus.SEED).get(0).toString();
+
+        List<String> needles = Corpus.terms(terms);
+        matcher = new TermMatcher(needles, false);
+        term = needles.get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Corpus.delete(root);
+    }
+
+    @Benchmark
+    public List<SearchResult> search() {
+        return FileInspector.search(file, matcher, false, BinaryMode.TEXT);
+    }
+
+    @Benchmark
+    public List<SearchResult> searchShowLines() {
+        return FileInspector.search(file, matcher, true, BinaryMode.TEXT);
+    }
+
+    @Benchmark
+    public List<SearchResult> executeSearchShowLines() {
+        return FileInspector.executeSearchShowLines(file, term);
+    }
+}
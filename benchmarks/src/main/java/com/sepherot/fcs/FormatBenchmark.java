@@ -0,0 +1,88 @@
+package com.sepherot.fcs;
+
+import com.sepherot.fcs.data.BinaryMode;
+import com.sepherot.fcs.data.SearchConfiguration;
+import com.sepherot.fcs.data.SearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures formatting of search results and creating result objects from them, the results are collected once from a generated corpus
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatBenchmark {
+    @Param({"100", "1000"})
+    public int files;
+
+    @Param({"1", "8"})
+    public int terms;
+
+    /**
+     * Share of lines containing a term
+     */
+    @Param({"0.01", "0.5"})
+    public double density;
+
+    private FileContentSearch search;
+    private ResultStore results;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path root = Files.createTempDirectory("fcs-format");
+        try {
+            List<Path> paths = Corpus.generate(root, files, 4096, terms, density, Corpus.SEED);
+            TermMatcher matcher = new TermMatcher(Corpus.terms(terms), false);
+            results = new ResultStore();
+            for(Path path: paths)
+                results.add(FileInspector.scan(path.toString(), matcher, true, BinaryMode.TEXT, null, null));
+        } finally {
+            Corpus.delete(root);
+        }
+
+        SearchConfiguration config = new SearchConfiguration();
+        config.setSearchTerms(Corpus.terms(terms));
+        config.setRootDirectory(root.toString());
+        config.setShowLines(true);
+        search = new FileContentSearch(config);
+    }
+
+    @Benchmark
+    public String formatSimple() {
+        return search.formatResultsForSimpleOutput(results);
+    }
+
+    @Benchmark
+    public String formatComplex() {
+        return search.formatResultsForComplexOutput(results);
+    }
+
+    @Benchmark
+    public List<SearchResult> toSearchResults() {
+        return results.toSearchResults();
+    }
+}
@@ -0,0 +1,150 @@
+package com.sepherot.fcs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Thin client which sends a search to a running {@link SearchServer} and prints the results
+ *
+ * Takes the same arguments as a search started with {@link Main}. The port of the server is read from the environment
+ * variable FCS_PORT, the token from the token file of the server.
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public class Client {
+    /**
+     * Environment variable containing the port of the server
+     */
+    public static final String PORT_VARIABLE = "FCS_PORT";
+
+    private Client() {}
+
+    public static void main(String[] args) {
+        String port = System.getenv(PORT_VARIABLE);
+        try {
+            int status = send(port == null ? SearchServer.DEFAULT_PORT : Integer.parseInt(port),
+                    System.getProperty("user.dir"), args, System.out);
+            System.out.println();
+            System.out.flush();
+            if(status != SearchServer.STATUS_OK)
+                System.exit(1);
+        } catch (NumberFormatException e) {
+            System.out.println("Port of the server is not a number: " + port);
+            System.exit(1);
+        } catch (IOException e) {
+            System.out.println("Connecting to the search server failed. Start it with --server.");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Send a search to the server and copy the output of the server, the token is read from the default token file
+     *
+     * @param port Port of the server
+     * @param workingDirectory Directory relative paths in the arguments are resolved against
+     * @param args Commandline arguments of the search
+     * @param output Receives the output of the server
+     * @return Status sent by the server
+     * @throws IOException Reading the token or communication with the server failed
+     */
+    public static int send(int port, String workingDirectory, String[] args, OutputStream output) throws IOException {
+        return send(port, readToken(SearchServer.tokenFile(port)), workingDirectory, args, output);
+    }
+
+    /**
+     * Read the token of a server
+     *
+     * @param tokenFile Token file written by the server
+     * @return Token
+     * @throws IOException Reading the file failed
+     */
+    public static String readToken(Path tokenFile) throws IOException {
+        return new String(Files.readAllBytes(tokenFile), StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Send a search to the server and copy the output of the server
+     *
+     * @param port Port of the server
+     * @param token Token of the server
+     * @param workingDirectory Directory relative paths in the arguments are resolved against
+     * @param args Commandline arguments of the search
+     * @param output Receives the output of the server
+     * @return Status sent by the server
+     * @throws IOException Communication with the server failed
+     */
+    public static int send(int port, String token, String workingDirectory, String[] args, OutputStream output)
+            throws IOException {
+        try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeUTF(token);
+            out.writeUTF(workingDirectory);
+            out.writeInt(args.length);
+            for(String arg: args)
+                out.writeUTF(arg);
+            out.flush();
+
+            InputStream in = socket.getInputStream();
+            int status = in.read();
+            if(status == -1)
+                throw new IOException("Server closed the connection without answer");
+            if(status == SearchServer.STATUS_STREAM)
+                return readFrames(new DataInputStream(new BufferedInputStream(in)), output);
+
+            byte[] buffer = new byte[8192];
+            int read;
+            while((read = in.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+                output.flush();
+            }
+            return status;
+        }
+    }
+
+    /**
+     * Copy the frames of a streamed answer and read the final status
+     *
+     * @param in Answer of the server after the first status byte
+     * @param output Receives the output of the server
+     * @return Final status sent by the server, an error if the answer ended early
+     * @throws IOException Communication with the server failed
+     */
+    private static int readFrames(DataInputStream in, OutputStream output) throws IOException {
+        byte[] buffer = new byte[8192];
+        try {
+            int length;
+            while((length = in.readInt()) != 0) {
+                if(length < 0)
+                    throw new IOException("Invalid frame length " + length);
+                while(length > 0) {
+                    int read = in.read(buffer, 0, Math.min(length, buffer.length));
+                    if(read == -1)
+                        throw new EOFException();
+                    output.write(buffer, 0, read);
+                    length -= read;
+                }
+                output.flush();
+            }
+
+            int status = in.readUnsignedByte();
+            output.write(in.readUTF().getBytes(StandardCharsets.UTF_8));
+            return status;
+        } catch (EOFException e) {
+            output.write("Server closed the connection before the search was complete".getBytes(StandardCharsets.UTF_8));
+            return SearchServer.STATUS_ERROR;
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.sepherot.fcs;
 
+import com.sepherot.fcs.data.BinaryMode;
+import com.sepherot.fcs.data.IndexCommand;
 import com.sepherot.fcs.data.SearchConfiguration;
 import org.apache.commons.cli.*;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Parse the command line parameter an return a configuration used for the following search
@@ -17,13 +24,11 @@ public class CmdParser {
     private CmdParser() {}
 
     /**
-     * Parse commandline parameter and create Configuration from them
+     * Define all supported options
      *
-     * @param args Commandline parameter
-     * @return Configuration for search
-     * @throws ParseException
+     * @return Options of the commandline
      */
-    public static SearchConfiguration parse(String[] args) throws ParseException {
+    private static Options createOptions() {
         // Defines special options
         Option extensions = new Option("e", "extensions", true, "Only look into files with the given extensions (separate multiple extensions by space");
         extensions.setArgs(Option.UNLIMITED_VALUES);
@@ -36,26 +41,104 @@ public class CmdParser {
         options.addOption("cs", "case-sensitive", false, "Execute search case sensitive");
         options.addOption("long", false, "Show complete path to file");
         options.addOption("ns", "no-subdirectories", false,"Exclude subdirectories from the search");
+        options.addOption(null, "include", true, "Only search files matching the glob (can be repeated)");
+        options.addOption(null, "exclude", true, "Skip files and directories matching the glob (can be repeated)");
+        options.addOption(null, "include-regex", true, "Only search files whose path contains a match of the regular expression (can be repeated)");
+        options.addOption(null, "exclude-regex", true, "Skip files and directories whose path contains a match of the regular expression (can be repeated)");
+        options.addOption(null, "no-ignore", false, "Also search paths excluded by .gitignore and .ignore files");
+        options.addOption("fl", "follow-links", false, "Follow symbolic links to files and directories");
+        options.addOption("t", "threads", true, "Number of files to search in parallel (0 = one per processor)");
+        options.addOption("wt", "walker-threads", true, "Number of directories to list in parallel (0 = one per processor)");
+        options.addOption("b", "binary", true, "Handling of binary files: skip (default), text or match-only");
+        options.addOption("s", "stream", false, "Print the results of every file as soon as it is searched");
+        options.addOption("m", "max-count", true, "Stop the search after the given number of files with matches");
+        options.addOption(null, "first-match", false, "Stop the search after the first file with matches");
+        options.addOption(null, "index", false, "Only search the files found by the index of the directory");
+        options.addOption(null, "server", false, "Start server answering searches sent by the client");
+        options.addOption(null, "port", true, "Port the server listens on (default 4711)");
+        options.addOption(null, "cache-size", true, "Size of the file content cache of the server in MB (default 256, 0 = off)");
+        options.addOption(null, "cache-off-heap", false, "Keep the file content cache of the server outside of the heap");
+        options.addOption(null, "stats", false, "Print counters and timings of the search");
+        options.addOption(null, "stats-json", false, "Print counters and timings of the search as JSON");
+        options.addOption(null, "jmx", false, "Expose metrics of all searches as JMX MBean");
         options.addOption("h", "help", false, "Hilfe anzeigen");
+        return options;
+    }
+
+    /**
+     * Format the help listing all options
+     *
+     * @return Formatted help
+     */
+    public static String formatHelp() {
+        StringWriter help = new StringWriter();
+        try(PrintWriter out = new PrintWriter(help)) {
+            HelpFormatter formatter = new HelpFormatter();
+            formatter.printHelp(out, formatter.getWidth(), "fcs.FileContentSearch [terms] | index build|update|watch [dir]",
+                    null, createOptions(), formatter.getLeftPadding(), formatter.getDescPadding(), null);
+        }
+        return help.toString();
+    }
 
+    /**
+     * Parse commandline parameter and create Configuration from them
+     *
+     * @param args Commandline parameter
+     * @return Configuration for search, only with the help flag set if the help was requested
+     * @throws ParseException
+     */
+    public static SearchConfiguration parse(String[] args) throws ParseException {
         // Create parser and process commandline arguments
         CommandLineParser parser = new DefaultParser();
-        CommandLine cmd = parser.parse(options, args);
+        CommandLine cmd = parser.parse(createOptions(), args);
 
+        // Create SearchConfiguration
+        SearchConfiguration config = new SearchConfiguration();
         if(cmd.hasOption("h")) {
-            HelpFormatter formatter = new HelpFormatter();
-            formatter.printHelp("fcs.FileContentSearch", options);
-            System.exit(0);
+            config.setHelp(true);
+            return config;
         }
 
-        // Create SearchConfiguration
-        SearchConfiguration config = new SearchConfiguration();
         config.setSearchTerms(cmd.getArgList());
         config.setRootDirectory(cmd.getOptionValue("d", "."));
+        config.setUseIndex(cmd.hasOption("index"));
+        config.setServer(cmd.hasOption("server"));
+        config.setCacheSize(parseCacheSize(cmd.getOptionValue("cache-size", "256")));
+        config.setCacheOffHeap(cmd.hasOption("cache-off-heap"));
+        config.setStats(cmd.hasOption("stats") || cmd.hasOption("stats-json"));
+        config.setStatsJson(cmd.hasOption("stats-json"));
+        config.setJmx(cmd.hasOption("jmx"));
+        config.setPort(parsePort(cmd.getOptionValue("port", String.valueOf(SearchServer.DEFAULT_PORT))));
+
+        // Maintain the index instead of searching: index <command> [dir]
+        List<String> arguments = cmd.getArgList();
+        IndexCommand command = arguments.size() >= 2 && "index".equals(arguments.get(0))
+                ? parseIndexCommand(arguments.get(1))
+                : null;
+        if(command != null) {
+            config.setIndexCommand(command);
+            config.setSearchTerms(new ArrayList<>());
+            if(arguments.size() > 2)
+                config.setRootDirectory(arguments.get(2));
+        }
         config.setShowLines(cmd.hasOption("l"));
         config.setCaseSensitive(cmd.hasOption("cs"));
         config.setLongPaths(cmd.hasOption("long"));
         config.setRecursive(!cmd.hasOption("ns"));
+        config.setFollowLinks(cmd.hasOption("fl"));
+        config.setRespectIgnoreFiles(!cmd.hasOption("no-ignore"));
+        config.setIncludes(parseValues(cmd, "include"));
+        config.setExcludes(parseValues(cmd, "exclude"));
+        config.setIncludeRegexes(parseRegexes(cmd, "include-regex"));
+        config.setExcludeRegexes(parseRegexes(cmd, "exclude-regex"));
+        config.setThreads(parseThreads(cmd.getOptionValue("t", "1")));
+        config.setWalkerThreads(parseThreads(cmd.getOptionValue("wt", "1")));
+        config.setBinaryMode(parseBinaryMode(cmd.getOptionValue("b", "skip")));
+        config.setStream(cmd.hasOption("s"));
+        if(cmd.hasOption("first-match"))
+            config.setMaxCount(1);
+        else
+            config.setMaxCount(parseMaxCount(cmd.getOptionValue("m", "0")));
 
         if(cmd.getOptionValues("e") != null) {
             // Remove point at beginning
@@ -73,4 +156,159 @@ public class CmdParser {
 
         return config;
     }
+
+    /**
+     * Parse number of threads to use for the search
+     *
+     * @param value Commandline value
+     * @return Number of threads, at least one
+     * @throws ParseException
+     */
+    private static int parseThreads(String value) throws ParseException {
+        int threads;
+        try {
+            threads = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ParseException("Number of threads is not a number: " + value);
+        }
+
+        if(threads < 0)
+            throw new ParseException("Number of threads must not be negative: " + value);
+        if(threads == 0)
+            threads = Runtime.getRuntime().availableProcessors();
+        return threads;
+    }
+
+    /**
+     * Collect all values of an option which can be repeated
+     *
+     * @param cmd Parsed commandline
+     * @param option Long name of the option
+     * @return List with all values, empty if the option is missing
+     */
+    private static List<String> parseValues(CommandLine cmd, String option) {
+        List<String> values = new ArrayList<>();
+        if(cmd.getOptionValues(option) != null)
+            values.addAll(Arrays.asList(cmd.getOptionValues(option)));
+        return values;
+    }
+
+    /**
+     * Collect all regular expressions of an option and check their syntax
+     *
+     * @param cmd Parsed commandline
+     * @param option Long name of the option
+     * @return List with all regular expressions, empty if the option is missing
+     * @throws ParseException
+     */
+    private static List<String> parseRegexes(CommandLine cmd, String option) throws ParseException {
+        List<String> regexes = parseValues(cmd, option);
+        for(String regex: regexes) {
+            try {
+                Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                throw new ParseException("Invalid regular expression: " + regex);
+            }
+        }
+        return regexes;
+    }
+
+    /**
+     * Parse size of the file content cache
+     *
+     * @param value Commandline value in MB
+     * @return Size in bytes, 0 to disable the cache
+     * @throws ParseException
+     */
+    private static long parseCacheSize(String value) throws ParseException {
+        long megabytes;
+        try {
+            megabytes = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ParseException("Size of the cache is not a number: " + value);
+        }
+
+        if(megabytes < 0)
+            throw new ParseException("Size of the cache must not be negative: " + value);
+        return megabytes * 1024 * 1024;
+    }
+
+    /**
+     * Parse port of the server
+     *
+     * @param value Commandline value
+     * @return Port, 0 to choose a free port
+     * @throws ParseException
+     */
+    private static int parsePort(String value) throws ParseException {
+        int port;
+        try {
+            port = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ParseException("Port is not a number: " + value);
+        }
+
+        if(port < 0 || port > 65535)
+            throw new ParseException("Port must be between 0 and 65535: " + value);
+        return port;
+    }
+
+    /**
+     * Parse command to maintain the index
+     *
+     * @param value Commandline value
+     * @return Selected command, NULL if the value is no index command
+     */
+    private static IndexCommand parseIndexCommand(String value) {
+        switch(value.toLowerCase()) {
+            case "build":
+                return IndexCommand.BUILD;
+            case "update":
+                return IndexCommand.UPDATE;
+            case "watch":
+                return IndexCommand.WATCH;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Parse handling of binary files
+     *
+     * @param value Commandline value
+     * @return Selected mode
+     * @throws ParseException
+     */
+    private static BinaryMode parseBinaryMode(String value) throws ParseException {
+        switch(value.toLowerCase()) {
+            case "skip":
+                return BinaryMode.SKIP;
+            case "text":
+                return BinaryMode.TEXT;
+            case "match-only":
+                return BinaryMode.MATCH_ONLY;
+            default:
+                throw new ParseException("Unknown handling of binary files: " + value);
+        }
+    }
+
+    /**
+     * Parse maximum number of files with matches
+     *
+     * @param value Commandline value
+     * @return Maximum number of files, 0 for no limit
+     * @throws ParseException
+     */
+    private static int parseMaxCount(String value) throws ParseException {
+        int maxCount;
+        try {
+            maxCount = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ParseException("Maximum number of files is not a number: " + value);
+        }
+
+        if(maxCount < 0)
+            throw new ParseException("Maximum number of files must not be negative: " + value);
+        return maxCount;
+    }
 }
@@ -0,0 +1,252 @@
+package com.sepherot.fcs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Keeps the content of recently searched files in memory, so repeated searches of the same files don't read them again
+ *
+ * Entries are valid as long as size and modification time of the file don't change. The cache is bounded by the
+ * total number of bytes, the least recently used files are evicted first. Files larger than a quarter of the capacity
+ * are never cached, so a single large file can't evict everything else. Files rejected by a check of their first bytes,
+ * like binary files skipped by the search, are not cached either. The content can be stored outside of the heap
+ * to not put pressure on the garbage collector, it is released once the entry is evicted and no search uses it any
+ * longer.
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public class ContentCache {
+    /**
+     * Cached content of a single file
+     */
+    private static final class Entry {
+        private final long size;
+        private final long modified;
+        private final ByteBuffer content;
+
+        Entry(long size, long modified, ByteBuffer content) {
+            this.size = size;
+            this.modified = modified;
+            this.content = content;
+        }
+    }
+
+    /**
+     * Number of bytes at the start of a file checked before the file is read completely, enough to detect binary
+     * files, see {@link #get(Path, Predicate)}
+     */
+    protected static final int PROBE_SIZE = FileInspector.BINARY_CHECK_SIZE;
+
+    private final long capacity;
+    private final boolean offHeap;
+
+    /**
+     * Entries in the order they were used, the eldest is evicted first
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Create new empty cache
+     *
+     * @param capacity Maximum number of bytes of all cached files
+     * @param offHeap Store the content in direct buffers outside of the heap
+     */
+    public ContentCache(long capacity, boolean offHeap) {
+        this.capacity = capacity;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Return the content of the file, reads and caches the file if it is not cached or changed since
+     *
+     * @param file Path to file
+     * @return Content of the file, NULL if the file is too large to be cached or can't be read
+     */
+    public ByteBuffer get(Path file) {
+        return get(file, start -> true);
+    }
+
+    /**
+     * Return the content of the file, reads and caches the file if it is not cached or changed since
+     *
+     * Before a file is read completely, its first bytes are passed to the check. Files not accepted are neither read
+     * any further nor cached, so files which are skipped anyway don't evict other files.
+     *
+     * @param file Path to file
+     * @param accept Receives the first {@link #PROBE_SIZE} bytes of a file not cached yet, returns FALSE to not read it
+     * @return Content of the file, NULL if the file is not accepted, too large to be cached or can't be read
+     */
+    public ByteBuffer get(Path file, Predicate<ByteBuffer> accept) {
+        return get(file, accept, null);
+    }
+
+    /**
+     * Return the content of the file, reads and caches the file if it is not cached or changed since
+     *
+     * Works like {@link #get(Path, Predicate)} and reports the number of bytes read from disk on a miss, including the
+     * first bytes of files which are not accepted.
+     *
+     * @param file Path to file
+     * @param accept Receives the first {@link #PROBE_SIZE} bytes of a file not cached yet, returns FALSE to not read it
+     * @param loaded Receives the number of bytes read from disk, not called for hits, may be NULL
+     * @return Content of the file, NULL if the file is not accepted, too large to be cached or can't be read
+     */
+    public ByteBuffer get(Path file, Predicate<ByteBuffer> accept, LongConsumer loaded) {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+
+        String key = file.toString();
+        long modified = attrs.lastModifiedTime().toMillis();
+        synchronized(this) {
+            Entry entry = entries.get(key);
+            if(entry != null && entry.size == attrs.size() && entry.modified == modified) {
+                hits.increment();
+                return entry.content.duplicate();
+            }
+        }
+
+        misses.increment();
+        // Buffers are indexed by int, larger files can't be cached no matter how large the cache is
+        if(attrs.size() > capacity / 4 || attrs.size() > Integer.MAX_VALUE)
+            return null;
+
+        ByteBuffer content = read(file, (int) attrs.size(), accept, loaded);
+        if(content == null)
+            return null;
+        put(key, new Entry(attrs.size(), modified, content));
+        return content.duplicate();
+    }
+
+    /**
+     * Read the complete file into a new buffer, after checking its first bytes
+     *
+     * @param file Path to file
+     * @param size Size of the file
+     * @param accept Receives the first bytes of the file, returns FALSE to not read it
+     * @param loaded Receives the number of bytes read, may be NULL
+     * @return Buffer with the content between position and limit, NULL if not accepted or reading failed
+     */
+    private ByteBuffer read(Path file, int size, Predicate<ByteBuffer> accept, LongConsumer loaded) {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer probe = ByteBuffer.allocate(Math.min(size, PROBE_SIZE));
+            readFully(channel, probe);
+            probe.flip();
+            if(!accept.test(probe.asReadOnlyBuffer())) {
+                if(loaded != null)
+                    loaded.accept(probe.remaining());
+                return null;
+            }
+
+            ByteBuffer content = offHeap ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+            content.put(probe);
+            readFully(channel, content);
+            content.flip();
+            if(loaded != null)
+                loaded.accept(content.remaining());
+            return content.asReadOnlyBuffer();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read until the buffer is full or the file ends, the file may have been truncated in the meantime
+     *
+     * @param channel Channel to read from
+     * @param buffer Buffer to fill
+     * @throws IOException Reading failed
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining() && channel.read(buffer) != -1) {
+            // Keep reading
+        }
+    }
+
+    /**
+     * Add entry and evict the least recently used entries until the cache fits its capacity again
+     *
+     * @param key Path to file
+     * @param entry Entry to add
+     */
+    private synchronized void put(String key, Entry entry) {
+        Entry previous = entries.put(key, entry);
+        if(previous != null)
+            size -= previous.content.capacity();
+        size += entry.content.capacity();
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while(size > capacity && eldest.hasNext()) {
+            size -= eldest.next().getValue().content.capacity();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Remove all entries, the counters are kept
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * Return number of bytes currently cached
+     *
+     * @return Size of all cached files
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Return number of cached files
+     *
+     * @return Number of entries
+     */
+    public synchronized int getEntries() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+}
@@ -1,8 +1,25 @@
 package com.sepherot.fcs;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 
 /**
  * Functionality to walk through directories and read file content
@@ -12,8 +29,23 @@ import java.util.List;
  * @since       2018-07-22
  */
 public class DirWalker {
+    /**
+     * Directory of git repositories, never searched if ignore files are respected
+     */
+    private static final String GIT_DIRECTORY = ".git";
+
     private List<String> allowedExtensions;
+    private Set<String> extensionLookup;
+    private PathFilter pathFilter;
     private boolean recursive;
+    private boolean followLinks;
+    private int parallelism = 1;
+    private boolean respectIgnoreFiles;
+
+    /**
+     * Receives counters and the time of every walk, NULL to not collect statistics
+     */
+    private SearchStats stats;
 
     /**
      * Create new dir walker
@@ -22,7 +54,7 @@ public class DirWalker {
      * @param recursive Also look into subdirectories
      */
     public DirWalker(List<String> allowedExtensions, boolean recursive) {
-        this.allowedExtensions = cleanExtensions(allowedExtensions);
+        setAllowedExtenstions(allowedExtensions);
         this.recursive = recursive;
     }
 
@@ -53,18 +85,46 @@ public class DirWalker {
     /**
      * Checks if a given file should be included in the search results, because of the extension
      *
+     * The extension is looked up in a hash set, so the costs do not grow with the number of allowed extensions.
+     *
      * @param file Name or full path of the file to check
      * @return Returns TRUE if file is allowed, otherwise FALSE
      */
     protected boolean hasAllowedExtension(String file) {
-        if(getAllowedExtensions().isEmpty())
+        if(extensionLookup.isEmpty())
             return true;
 
-        for(String extension: getAllowedExtensions()) {
-            if(file.toLowerCase().endsWith("." + extension))
-                return true;
-        }
-        return false;
+        int dot = file.lastIndexOf('.');
+        return dot != -1 && extensionLookup.contains(file.substring(dot + 1).toLowerCase());
+    }
+
+    /**
+     * Checks if a file is an index written by {@link TrigramIndex}, or a temporary file left over while writing one
+     *
+     * Index files contain the paths of all indexed files, so they are never searched.
+     *
+     * @param file Path to file
+     * @return Returns TRUE if the file belongs to an index, otherwise FALSE
+     */
+    static boolean isIndexFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.equals(TrigramIndex.INDEX_FILE) || (name.startsWith(TrigramIndex.INDEX_FILE) && name.endsWith(".tmp"));
+    }
+
+    /**
+     * Checks if the path filter accepts a file or directory found below the root directory
+     *
+     * @param root Directory the walk started at
+     * @param path Path to check
+     * @param directory Path points to a directory
+     * @return Returns TRUE if the path is accepted, otherwise FALSE
+     */
+    private boolean isAccepted(Path root, Path path, boolean directory) {
+        if(pathFilter == null || pathFilter.isEmpty())
+            return true;
+
+        String relative = root.relativize(path).toString().replace('\\', '/');
+        return directory ? pathFilter.acceptsDirectory(relative) : pathFilter.acceptsFile(relative);
     }
 
     public List<String> getAllowedExtensions() {
@@ -73,6 +133,7 @@ public class DirWalker {
 
     public void setAllowedExtenstions(List<String> allowedExtensions) {
         this.allowedExtensions = cleanExtensions(allowedExtensions);
+        this.extensionLookup = new HashSet<>(this.allowedExtensions);
     }
 
     public boolean getRecursive() {
@@ -83,6 +144,99 @@ public class DirWalker {
         this.recursive = recursive;
     }
 
+    public boolean getFollowLinks() {
+        return followLinks;
+    }
+
+    public void setFollowLinks(boolean followLinks) {
+        this.followLinks = followLinks;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public PathFilter getPathFilter() {
+        return pathFilter;
+    }
+
+    public void setPathFilter(PathFilter pathFilter) {
+        this.pathFilter = pathFilter;
+    }
+
+    public boolean getRespectIgnoreFiles() {
+        return respectIgnoreFiles;
+    }
+
+    public void setRespectIgnoreFiles(boolean respectIgnoreFiles) {
+        this.respectIgnoreFiles = respectIgnoreFiles;
+    }
+
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    public void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Checks if a file below the given path would be passed to the visitor of a walk
+     *
+     * Used for files which are known without walking, e.g. from an index. Ignore files and links are not checked.
+     *
+     * @param path Path for directory the walk would start at
+     * @param file Path to file below the directory
+     * @return Returns TRUE if the file is accepted by the extensions and filters, otherwise FALSE
+     */
+    public boolean accepts(String path, String file) {
+        return accepts(path, file, false);
+    }
+
+    /**
+     * Checks if a file below the given path would be passed to the visitor of a walk
+     *
+     * Used for files which are known without walking, e.g. from an index or a file system event. Links are not
+     * checked.
+     *
+     * @param path Path for directory the walk would start at
+     * @param file Path to file below the directory
+     * @param checkIgnoreFiles Also read the ignore files of all directories between the path and the file
+     * @return Returns TRUE if the file is accepted by the extensions, filters and ignore files, otherwise FALSE
+     */
+    public boolean accepts(String path, String file, boolean checkIgnoreFiles) {
+        Path root = Paths.get(path);
+        Path f = Paths.get(file);
+        if(f.getParent() == null || !f.startsWith(root) || !hasAllowedExtension(f.getFileName().toString())
+                || isIndexFile(f))
+            return false;
+        if(!getRecursive() && !root.equals(f.getParent()))
+            return false;
+
+        for(Path dir = f.getParent(); dir != null && !dir.equals(root); dir = dir.getParent()) {
+            if(!isAccepted(root, dir, true))
+                return false;
+        }
+        if(!isAccepted(root, f, false))
+            return false;
+        if(!checkIgnoreFiles || !getRespectIgnoreFiles())
+            return true;
+
+        // Apply the ignore files from the top down, like a walk would
+        IgnoreRules rules = IgnoreRules.load(null, root);
+        for(int i = root.getNameCount(); i < f.getNameCount() - 1; i++) {
+            Path dir = root.resolve(f.subpath(root.getNameCount(), i + 1));
+            if(isIgnored(rules, dir, true))
+                return false;
+            rules = IgnoreRules.load(rules, dir);
+        }
+        return !isIgnored(rules, f, false);
+    }
+
     /**
      * Lists all files which are saved under the given path
      *
@@ -91,21 +245,346 @@ public class DirWalker {
      */
     public List<String> listFiles(String path) {
         List<String> files = new ArrayList<>();
+        walk(path, files::add);
+        return files;
+    }
+
+    /**
+     * Passes all files which are saved under the given path to the visitor as soon as they are found
+     *
+     * The walk is iterative and reuses the attributes read while listing the directories. Symbolic links are only
+     * followed if enabled, directories already visited on the current path are skipped to avoid endless cycles.
+     * If enabled, paths excluded by .gitignore or .ignore files are skipped, ignored directories are not entered.
+     * Directories rejected by the path filter are not entered either. Index files of {@link TrigramIndex} are skipped.
+     *
+     * With a parallelism above one the directories are listed concurrently, the visitor then is called from
+     * multiple threads and has to be thread safe.
+     *
+     * If statistics are collected, the time spent in the visitor is not counted as time of the walk.
+     *
+     * @param path Path for directory to check
+     * @param visitor Receives the path of every file, returns FALSE to stop the walk
+     * @return Returns FALSE if the walk was stopped by the visitor, otherwise TRUE
+     */
+    public boolean walk(String path, Predicate<String> visitor) {
+        Path root = Paths.get(path);
+        if(!Files.isDirectory(root))
+            return true;
+        if(getParallelism() > 1)
+            return walkParallel(root, visitor);
+
+        long start = stats == null ? 0 : System.nanoTime();
+        long cpuStart = stats == null ? 0 : SearchStats.cpuTime();
+        long[] visiting = new long[2];
+        Predicate<String> target = stats == null ? visitor : timed(visitor, visiting);
+
+        Set<FileVisitOption> options = getFollowLinks()
+                ? EnumSet.of(FileVisitOption.FOLLOW_LINKS)
+                : EnumSet.noneOf(FileVisitOption.class);
+        int maxDepth = getRecursive() ? Integer.MAX_VALUE : 1;
+        boolean[] completed = {true};
+        List<IgnoreRules> rules = new ArrayList<>();
 
-        File file = new File(path);
-        if(file.exists() && file.isDirectory()) {
-            for(File f: file.listFiles()) {
-                if(f.isDirectory()) {
-                    if(getRecursive()) {
-                        files.addAll(listFiles(f.getPath()));
+        try {
+            Files.walkFileTree(root, options, maxDepth, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    IgnoreRules current = rules.isEmpty() ? null : rules.get(rules.size() - 1);
+                    if(!dir.equals(root) && (!isAccepted(root, dir, true) || isIgnored(current, dir, true)))
+                        return FileVisitResult.SKIP_SUBTREE;
+
+                    rules.add(getRespectIgnoreFiles() ? IgnoreRules.load(current, dir) : null);
+                    if(stats != null)
+                        stats.addDirectoryVisited();
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                    rules.remove(rules.size() - 1);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    // Directories and links not followed are reported as files at the maximum depth
+                    if(!attrs.isRegularFile())
+                        return FileVisitResult.CONTINUE;
+                    if(stats != null)
+                        stats.addFileVisited();
+                    if(!hasAllowedExtension(file.getFileName().toString()) || isIndexFile(file)
+                            || !isAccepted(root, file, false) || isIgnored(rules.get(rules.size() - 1), file, false)) {
+                        if(stats != null)
+                            stats.addFileSkipped();
+                        return FileVisitResult.CONTINUE;
                     }
+
+                    if(!target.test(file.toString())) {
+                        completed[0] = false;
+                        return FileVisitResult.TERMINATE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    // Skip unreadable entries and cycles created by symbolic links
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            // Only thrown by the visitor, which never fails
+        }
+
+        if(stats != null)
+            stats.addPhase(SearchStats.Phase.WALK, System.nanoTime() - start - visiting[0],
+                    SearchStats.cpuTime() - cpuStart - visiting[1]);
+        return completed[0];
+    }
+
+    /**
+     * Lists all directories a walk of the given path would enter, starting at a directory below the path
+     *
+     * Directories rejected by the path filter or the ignore files are not entered, the same as in {@link #walk}. The
+     * filters and ignore files of the directories between the path and the start are applied as well.
+     *
+     * @param path Path for directory the walk would start at
+     * @param start Directory to list, the path itself or a directory below it
+     * @return Start and all directories below it which would be entered, empty if the start would be skipped
+     */
+    public List<Path> listDirectories(String path, String start) {
+        Path root = Paths.get(path);
+        Path first = Paths.get(start);
+        List<Path> directories = new ArrayList<>();
+        if(!first.startsWith(root) || !Files.isDirectory(first))
+            return directories;
+        if(!getRecursive()) {
+            if(first.equals(root))
+                directories.add(root);
+            return directories;
+        }
+
+        // Apply the ignore files from the top down, like a walk would
+        IgnoreRules parentRules = null;
+        for(int i = root.getNameCount(); i < first.getNameCount(); i++) {
+            Path dir = i == root.getNameCount() ? root : root.resolve(first.subpath(root.getNameCount(), i));
+            if(!dir.equals(root) && (!isAccepted(root, dir, true) || isIgnored(parentRules, dir, true)))
+                return directories;
+            parentRules = getRespectIgnoreFiles() ? IgnoreRules.load(parentRules, dir) : null;
+        }
+
+        Set<FileVisitOption> options = getFollowLinks()
+                ? EnumSet.of(FileVisitOption.FOLLOW_LINKS)
+                : EnumSet.noneOf(FileVisitOption.class);
+        List<IgnoreRules> rules = new ArrayList<>();
+        rules.add(parentRules);
+
+        try {
+            Files.walkFileTree(first, options, Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    IgnoreRules current = rules.get(rules.size() - 1);
+                    if(!dir.equals(root) && (!isAccepted(root, dir, true) || isIgnored(current, dir, true)))
+                        return FileVisitResult.SKIP_SUBTREE;
+
+                    rules.add(getRespectIgnoreFiles() ? IgnoreRules.load(current, dir) : null);
+                    directories.add(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                    rules.remove(rules.size() - 1);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    // Skip unreadable entries and cycles created by symbolic links
+                    return FileVisitResult.CONTINUE;
                 }
-                else if(hasAllowedExtension(f.getPath())) {
-                    files.add(f.getPath());
+            });
+        } catch (IOException e) {
+            // Only thrown by the visitor, which never fails
+        }
+        return directories;
+    }
+
+    /**
+     * Wrap visitor to measure the time spent in it, only called from a single thread
+     *
+     * @param visitor Visitor to wrap
+     * @param visiting Receives the elapsed time and the CPU time of all calls in nanoseconds
+     * @return Wrapped visitor
+     */
+    private static Predicate<String> timed(Predicate<String> visitor, long[] visiting) {
+        return file -> {
+            long start = System.nanoTime();
+            long cpuStart = SearchStats.cpuTime();
+            try {
+                return visitor.test(file);
+            } finally {
+                visiting[0] += System.nanoTime() - start;
+                visiting[1] += SearchStats.cpuTime() - cpuStart;
+            }
+        };
+    }
+
+    /**
+     * Checks if a path is excluded by the ignore files, the directory .git is always excluded
+     *
+     * @param rules Rules of the directory containing the path, may be NULL
+     * @param path Path to check
+     * @param directory Path points to a directory
+     * @return Returns TRUE if the path should be skipped, otherwise FALSE
+     */
+    private boolean isIgnored(IgnoreRules rules, Path path, boolean directory) {
+        if(!getRespectIgnoreFiles())
+            return false;
+        if(directory && GIT_DIRECTORY.equals(path.getFileName().toString()))
+            return true;
+        return rules != null && rules.isIgnored(path, directory);
+    }
+
+    /**
+     * Walk through the directories with a fork join pool, every directory is listed by its own task
+     *
+     * @param root Directory to start at
+     * @param visitor Receives the path of every file, returns FALSE to stop the walk
+     * @return Returns FALSE if the walk was stopped by the visitor, otherwise TRUE
+     */
+    private boolean walkParallel(Path root, Predicate<String> visitor) {
+        AtomicBoolean stopped = new AtomicBoolean();
+        ForkJoinPool pool = new ForkJoinPool(getParallelism());
+        try {
+            pool.invoke(new DirectoryTask(root, root, null, null, null, visitor, stopped));
+        } finally {
+            pool.shutdown();
+        }
+        return !stopped.get();
+    }
+
+    /**
+     * Lists one directory, passes its files to the visitor and forks a new task for every subdirectory
+     *
+     * Tasks never wait for their subdirectories. Every task completes once its own listing and all tasks forked below
+     * it are done, so the depth of the directory tree doesn't add up on the stack of a worker thread.
+     */
+    private class DirectoryTask extends CountedCompleter<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path root;
+        private final Path dir;
+        private final Object fileKey;
+        private final DirectoryTask parent;
+        private final IgnoreRules parentRules;
+        private final Predicate<String> visitor;
+        private final AtomicBoolean stopped;
+
+        DirectoryTask(Path root, Path dir, Object fileKey, DirectoryTask parent, IgnoreRules parentRules,
+                      Predicate<String> visitor, AtomicBoolean stopped) {
+            super(parent);
+            this.root = root;
+            this.dir = dir;
+            this.fileKey = fileKey;
+            this.parent = parent;
+            this.parentRules = parentRules;
+            this.visitor = visitor;
+            this.stopped = stopped;
+        }
+
+        @Override
+        public void compute() {
+            List<DirectoryTask> subdirectories = list();
+            if(stopped.get())
+                subdirectories.clear();
+
+            setPendingCount(subdirectories.size());
+            for(DirectoryTask task: subdirectories)
+                task.fork();
+            tryComplete();
+        }
+
+        /**
+         * List the directory and pass its files to the visitor
+         *
+         * @return Tasks for the subdirectories to walk
+         */
+        private List<DirectoryTask> list() {
+            long start = stats == null ? 0 : System.nanoTime();
+            long cpuStart = stats == null ? 0 : SearchStats.cpuTime();
+            long[] visiting = new long[2];
+            Predicate<String> target = stats == null ? visitor : timed(visitor, visiting);
+
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+            IgnoreRules rules = getRespectIgnoreFiles() ? IgnoreRules.load(parentRules, dir) : null;
+            if(stats != null)
+                stats.addDirectoryVisited();
+
+            try(DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for(Path entry: entries) {
+                    if(stopped.get())
+                        return subdirectories;
+
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = getFollowLinks()
+                                ? Files.readAttributes(entry, BasicFileAttributes.class)
+                                : Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue;
+                    }
+
+                    if(attrs.isDirectory()) {
+                        if(getRecursive() && isAccepted(root, entry, true) && !isIgnored(rules, entry, true)
+                                && !isCycle(entry, attrs.fileKey()))
+                            subdirectories.add(new DirectoryTask(root, entry, attrs.fileKey(), this, rules, visitor, stopped));
+                    }
+                    else if(attrs.isRegularFile()) {
+                        if(stats != null)
+                            stats.addFileVisited();
+                        if(!hasAllowedExtension(entry.getFileName().toString()) || isIndexFile(entry)
+                                || !isAccepted(root, entry, false) || isIgnored(rules, entry, false)) {
+                            if(stats != null)
+                                stats.addFileSkipped();
+                        }
+                        else if(!target.test(entry.toString())) {
+                            stopped.set(true);
+                            return subdirectories;
+                        }
+                    }
                 }
+            } catch (IOException | DirectoryIteratorException e) {
+                // Skip unreadable directories
             }
+
+            // Subdirectories measure their own time
+            if(stats != null)
+                stats.addPhase(SearchStats.Phase.WALK, System.nanoTime() - start - visiting[0],
+                        SearchStats.cpuTime() - cpuStart - visiting[1]);
+            return subdirectories;
         }
 
-        return files;
+        /**
+         * Checks if the directory is the same as one of the directories above it, only possible when following links
+         *
+         * @param subdirectory Path to directory
+         * @param key Key of directory, may be NULL if not supported by the file system
+         * @return Returns TRUE if the directory was already visited on the current path, otherwise FALSE
+         */
+        private boolean isCycle(Path subdirectory, Object key) {
+            if(!getFollowLinks())
+                return false;
+
+            for(DirectoryTask t = this; t != null; t = t.parent) {
+                try {
+                    if(key != null && t.fileKey != null ? key.equals(t.fileKey) : Files.isSameFile(subdirectory, t.dir))
+                        return true;
+                } catch (IOException e) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 }
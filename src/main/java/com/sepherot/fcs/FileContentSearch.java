@@ -1,13 +1,21 @@
 package com.sepherot.fcs;
 
+import com.sepherot.fcs.data.BinaryMode;
 import com.sepherot.fcs.data.SearchConfiguration;
-import com.sepherot.fcs.data.SearchResult;
 import org.apache.commons.cli.ParseException;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 /**
  * Start and manage search
@@ -17,15 +25,70 @@ import java.util.Map;
  * @since       2018-07-23
  */
 public class FileContentSearch {
+    /**
+     * Maximum number of files waiting for inspection during a parallel search
+     */
+    private static final int QUEUE_CAPACITY = 1024;
+
+    /**
+     * Marks the end of the queued files, compared by reference
+     */
+    private static final String END_OF_FILES = new String("");
+
     private SearchConfiguration config;
 
+    /**
+     * Index used instead of the index stored in the root directory, NULL to read the stored index
+     */
+    private FileIndex index;
+
+    /**
+     * Cache for the content of the searched files, NULL to always read the files
+     */
+    private ContentCache cache;
+
+    /**
+     * Counters and timings of the search, NULL if statistics are not collected
+     */
+    private SearchStats stats;
+
+    /**
+     * Cumulative metrics of all searches exposed over JMX, NULL if not exposed
+     */
+    private SearchMetrics metrics;
+
+    /**
+     * Passes the files to search to a visitor, either by walking through the directories or from the index
+     */
+    private interface FileSource {
+        /**
+         * Pass every file to the visitor
+         *
+         * @param visitor Receives the path of every file, returns FALSE to stop
+         * @return Returns FALSE if the visitor stopped, otherwise TRUE
+         */
+        boolean forEach(Predicate<String> visitor);
+    }
+
     /**
      * Start fcs.FileContentSearch
      *
      * @param args Commandline arguments
      */
     public FileContentSearch(String[] args) throws ParseException {
-        config = CmdParser.parse(args);
+        this(CmdParser.parse(args));
+    }
+
+    /**
+     * Start fcs.FileContentSearch
+     *
+     * @param config Configuration of the search
+     */
+    public FileContentSearch(SearchConfiguration config) {
+        this.config = config;
+        this.stats = config.isStats() ? new SearchStats() : null;
+        if(config.isJmx())
+            setMetrics(SearchMetrics.register());
     }
 
     /**
@@ -49,48 +112,70 @@ public class FileContentSearch {
     }
 
     /**
-     * Group results by term and file
+     * Print search results for simple search without line numbers
+     *
+     * Terms and files are sorted to keep the output independent of the order files were inspected in.
      *
-     * @param results Search results
-     * @return Grouped results
+     * @param results Results of the search
+     * @return String with formatted results
      */
-    private Map<String, Map<String, List<Integer>>> groupSearchResults(List<SearchResult> results) {
-        Map<String, Map<String, List<Integer>>> groupedResults = new HashMap<>();
-
-        for(SearchResult r: results) {
-            if(r == null)
-                continue;
+    String formatResultsForSimpleOutput(ResultStore results) {
+        StringBuilder resultStr = new StringBuilder();
 
-            // Add new term
-            if(!groupedResults.containsKey(r.getTerm()))
-                groupedResults.put(r.getTerm(), new HashMap<>());
-            // Add new file to term
-            if(!groupedResults.get(r.getTerm()).containsKey(r.getFile()))
-                groupedResults.get(r.getTerm()).put(r.getFile(), new ArrayList<>());
-            // Add new unique line number
-            if(r.getLineNumber() != null && !groupedResults.get(r.getTerm()).get(r.getFile()).contains(r.getLineNumber()))
-                groupedResults.get(r.getTerm()).get(r.getFile()).add(r.getLineNumber());
-            if(r.getLineNumber() == null && !groupedResults.get(r.getTerm()).get(r.getFile()).contains(0))
-                groupedResults.get(r.getTerm()).get(r.getFile()).add(0);
+        int[] files = results.sortedFiles();
+        for(int term: results.sortedTerms()) {
+            resultStr.append(String.format("%n>> %s%n", results.getTerm(term)));
+            for(int file: files) {
+                if(results.getLines(file, term) != null)
+                    resultStr.append(String.format("  %s%n", shortenPath(results.getFile(file))));
+            }
         }
 
-        return groupedResults;
+        return resultStr.toString();
     }
 
     /**
-     * Print search results for simple search without line numbers
+     * Format line numbers of one term in one file
+     *
+     * @param lines Line numbers, empty if the term was found in a binary file without tracking lines
+     * @return Formatted line numbers
+     */
+    private static String formatLineNumbers(int[] lines) {
+        if(lines.length == 0)
+            return "(binary file matches)";
+
+        StringBuilder lineNumbers = new StringBuilder("[");
+        for(int i = 0; i < lines.length; i++) {
+            if(i > 0)
+                lineNumbers.append(", ");
+            lineNumbers.append(lines[i]);
+        }
+        return lineNumbers.append(']').toString();
+    }
+
+    /**
+     * Print search results for complex search with line numbers
+     *
+     * Terms and files are sorted to keep the output independent of the order files were inspected in.
      *
-     * @param results List with search results
+     * @param results Results of the search
      * @return String with formatted results
      */
-    private String formatResultsForSimpleOutput(List<SearchResult> results) {
+    String formatResultsForComplexOutput(ResultStore results) {
         StringBuilder resultStr = new StringBuilder();
 
-        Map<String, Map<String, List<Integer>>> groupedResults = groupSearchResults(results);
-        for(Map.Entry<String, Map<String, List<Integer>>> term: groupedResults.entrySet()) {
-            resultStr.append(String.format("%n>> %s%n", term.getKey()));
-            for(Map.Entry<String, List<Integer>> file: term.getValue().entrySet()) {
-                resultStr.append(String.format("  %s%n", shortenPath(file.getKey())));
+        int[] files = results.sortedFiles();
+        for(int term: results.sortedTerms()) {
+            resultStr.append(String.format("%n>> %s%n", results.getTerm(term)));
+            for(int file: files) {
+                int[] lines = results.getLines(file, term);
+                if(lines == null)
+                    continue;
+                resultStr.append(String.format(
+                    "  %s%n    %s%n",
+                    shortenPath(results.getFile(file)),
+                    formatLineNumbers(lines)
+                ));
             }
         }
 
@@ -98,31 +183,273 @@ public class FileContentSearch {
     }
 
     /**
-     * Print search results for complex search with line numbers
+     * Format the results of a single file for the streamed output
      *
-     * @param results List with search results
+     * @param results Results of the file
      * @return String with formatted results
      */
-    private String formatResultsForComplexOutput(List<SearchResult> results) {
+    private String formatFileResults(FileResults results) {
         StringBuilder resultStr = new StringBuilder();
+        resultStr.append(String.format("%n%s%n", shortenPath(results.getPath())));
+
+        for(int term: results.sortedTerms()) {
+            resultStr.append(String.format("  >> %s%n", results.getTerms().get(term)));
+            if(config.isShowLines())
+                resultStr.append(String.format("    %s%n", formatLineNumbers(results.getLines(term))));
+        }
 
-        Map<String, Map<String, List<Integer>>> groupedResults = groupSearchResults(results);
-        for(Map.Entry<String, Map<String, List<Integer>>> term: groupedResults.entrySet()) {
-            resultStr.append(String.format("%n>> %s%n", term.getKey()));
-            for(Map.Entry<String, List<Integer>> file: term.getValue().entrySet()) {
-                List<String> lineNumbers = new ArrayList<>();
-                for(Integer line: file.getValue())
-                    lineNumbers.add(String.valueOf(line));
+        return resultStr.toString();
+    }
 
-                resultStr.append(String.format(
-                    "  %s%n    [%s]%n",
-                    shortenPath(file.getKey()),
-                    String.join(", ", lineNumbers)
-                ));
+    /**
+     * Create walker for the configured directory
+     *
+     * @return Configured walker
+     */
+    private DirWalker createWalker() {
+        DirWalker dw = new DirWalker();
+        dw.setAllowedExtenstions(config.getExtensions());
+        dw.setRecursive(config.isRecursive());
+        dw.setFollowLinks(config.isFollowLinks());
+        dw.setParallelism(config.getWalkerThreads());
+        dw.setRespectIgnoreFiles(config.isRespectIgnoreFiles());
+        dw.setPathFilter(new PathFilter(config.getIncludes(), config.getExcludes(),
+                config.getIncludeRegexes(), config.getExcludeRegexes()));
+        return dw;
+    }
+
+    /**
+     * Inspect all files and pass the results to the dispatcher
+     *
+     * @param dispatcher Receives the results of every file
+     */
+    private void inspectFiles(ResultDispatcher dispatcher) {
+        DirWalker dw = createWalker();
+        dw.setStats(stats);
+
+        // Compile terms only once for all files
+        TermMatcher matcher = new TermMatcher(config.getSearchTerms(), config.isCaseSensitive());
+
+        FileSource files = config.isUseIndex()
+                ? indexedFiles(dw, matcher)
+                : visitor -> dw.walk(config.getRootDirectory(), visitor);
+
+        if(config.getThreads() > 1)
+            searchParallel(files, matcher, dispatcher);
+        else
+            searchSequential(files, matcher, dispatcher);
+    }
+
+    /**
+     * Look up the files which may contain the terms in the index of the root directory
+     *
+     * Only the candidates accepted by the walker are searched. Every candidate is still verified by reading it, files
+     * changed since the index was written are always candidates.
+     *
+     * @param dw Walker with the extensions and filters of the search
+     * @param matcher Matcher for the search terms
+     * @return Source passing the candidates
+     */
+    private FileSource indexedFiles(DirWalker dw, TermMatcher matcher) {
+        SearchStats.Stopwatch watch = stats == null ? null : stats.stopwatch();
+        if(watch != null)
+            watch.start();
+
+        List<String> candidates;
+        try {
+            FileIndex index = this.index != null ? this.index : TrigramIndex.open(Paths.get(config.getRootDirectory()));
+            candidates = index.candidates(matcher.getTerms(), matcher.isCaseSensitive(),
+                    config.getBinaryMode() != BinaryMode.SKIP);
+        } catch (IOException e) {
+            throw new IllegalStateException("Reading the index of " + config.getRootDirectory()
+                    + " failed, use 'index build' to create it", e);
+        }
+
+        if(watch != null)
+            watch.stop(SearchStats.Phase.WALK);
+
+        return visitor -> {
+            for(String file: candidates) {
+                boolean accepted = dw.accepts(config.getRootDirectory(), file);
+                if(stats != null) {
+                    stats.addFileVisited();
+                    if(!accepted)
+                        stats.addFileSkipped();
+                }
+                if(accepted && !visitor.test(file))
+                    return false;
             }
+            return true;
+        };
+    }
+
+    /**
+     * Index all files of the root directory
+     *
+     * @return Number of indexed files
+     * @throws IOException Writing the index failed
+     */
+    public int buildIndex() throws IOException {
+        return TrigramIndex.build(Paths.get(config.getRootDirectory()), createWalker());
+    }
+
+    /**
+     * Update the index of the root directory, only new and changed files are read
+     *
+     * @return Number of files read
+     * @throws IOException Writing the index failed
+     */
+    public int updateIndex() throws IOException {
+        return TrigramIndex.update(Paths.get(config.getRootDirectory()), createWalker());
+    }
+
+    /**
+     * Keep the index of the root directory up to date until the process is stopped
+     *
+     * The directory is read once, afterwards only the changes reported by the file system are applied. The index is
+     * saved after every batch of changes, so searches with the index always see the current state.
+     *
+     * @throws IOException Watching the directory or saving the index failed
+     * @throws InterruptedException Watching was interrupted
+     */
+    public void watchIndex() throws IOException, InterruptedException {
+        LiveIndex index = new LiveIndex(Paths.get(config.getRootDirectory()), createWalker());
+        index.rescan();
+        index.save();
+
+        try(IndexWatcher watcher = new IndexWatcher(index, LiveIndex::save)) {
+            watcher.start();
+            watcher.await();
         }
+    }
 
-        return resultStr.toString();
+    /**
+     * Search the terms in a single file
+     *
+     * @param file Path to file
+     * @param matcher Matcher for the search terms
+     * @return Line numbers of the file by term
+     */
+    private FileResults inspect(String file, TermMatcher matcher) {
+        return FileInspector.scan(file, matcher, config.isShowLines(), config.getBinaryMode(), cache, stats);
+    }
+
+    /**
+     * Inspect the files on the thread which found them while walking through the directories
+     *
+     * @param files Source of the files to search
+     * @param matcher Matcher for the search terms
+     * @param dispatcher Receives the results of every file
+     */
+    private void searchSequential(FileSource files, TermMatcher matcher, ResultDispatcher dispatcher) {
+        files.forEach(file -> {
+            dispatcher.dispatch(inspect(file, matcher));
+            return !dispatcher.isStopped();
+        });
+    }
+
+    /**
+     * Inspect files concurrently with the configured number of threads
+     *
+     * The walker pushes the files into a bounded queue while it is still walking, the workers take them from there.
+     * A full queue blocks the walker until the workers catch up.
+     *
+     * @param files Source of the files to search
+     * @param matcher Matcher for the search terms
+     * @param dispatcher Receives the results of every file
+     */
+    private void searchParallel(FileSource files, TermMatcher matcher, ResultDispatcher dispatcher) {
+        BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        if(metrics != null)
+            metrics.addQueue(queue);
+
+        ExecutorService executor = Executors.newFixedThreadPool(config.getThreads());
+        for(int i = 0; i < config.getThreads(); i++) {
+            executor.execute(() -> inspectQueuedFiles(queue, matcher, dispatcher, failure));
+        }
+
+        try {
+            files.forEach(file -> {
+                enqueue(queue, file);
+                return !dispatcher.isStopped() && failure.get() == null;
+            });
+        } finally {
+            // Tell every worker that no more files will follow
+            for(int i = 0; i < config.getThreads(); i++) {
+                enqueue(queue, END_OF_FILES);
+            }
+            executor.shutdown();
+        }
+
+        try {
+            while(!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Wait until all queued files are inspected
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search was interrupted", e);
+        } finally {
+            if(metrics != null)
+                metrics.removeQueue(queue);
+        }
+
+        if(failure.get() != null)
+            throw failure.get();
+    }
+
+    /**
+     * Inspect files taken from the queue until the end marker is reached
+     *
+     * @param queue Queue with files to inspect
+     * @param matcher Matcher for the search terms
+     * @param dispatcher Receives the results of every file
+     * @param failure Stores the first error which occurred during the inspection
+     */
+    private void inspectQueuedFiles(BlockingQueue<String> queue, TermMatcher matcher,
+                                    ResultDispatcher dispatcher, AtomicReference<RuntimeException> failure) {
+        try {
+            String file = queue.take();
+            while(file != END_OF_FILES) {
+                // Keep consuming after a stop or failure, otherwise the walker could block on a full queue
+                if(!dispatcher.isStopped() && failure.get() == null) {
+                    try {
+                        dispatcher.dispatch(inspect(file, matcher));
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+                file = queue.take();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Put file into the queue, waits if the queue is full
+     *
+     * @param queue Queue to add the file to
+     * @param file Path to file
+     */
+    private static void enqueue(BlockingQueue<String> queue, String file) {
+        try {
+            queue.put(file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search was interrupted", e);
+        }
+    }
+
+    /**
+     * Create header printed before the results
+     *
+     * @return Formatted header
+     */
+    private String formatHeader() {
+        return String.format("Searching in %s for [%s]:%n", config.getRootDirectory(), String.join(", ", config.getSearchTerms()));
     }
 
     /**
@@ -131,25 +458,162 @@ public class FileContentSearch {
      * @return Returns results as formatted string
      */
     public String search() {
-        StringBuilder resultStr = new StringBuilder();
-        resultStr.append(String.format("Searching in %s for [%s]:%n", config.getRootDirectory(), String.join(", ", config.getSearchTerms())));
+        long start = System.nanoTime();
+        long[] before = searchStarted();
+        try {
+            StringBuilder resultStr = new StringBuilder();
+            resultStr.append(formatHeader());
 
-        DirWalker dw = new DirWalker();
-        dw.setAllowedExtenstions(config.getExtensions());
-        dw.setRecursive(config.isRecursive());
+            ResultStore results = new ResultStore();
+            inspectFiles(new ResultDispatcher(results::add, config.getMaxCount()));
+
+            SearchStats.Stopwatch watch = stats == null ? null : stats.stopwatch();
+            if(watch != null)
+                watch.start();
+            if(config.isShowLines())
+                resultStr.append(formatResultsForComplexOutput(results));
+            else
+                resultStr.append(formatResultsForSimpleOutput(results));
+            if(watch != null) {
+                watch.stop(SearchStats.Phase.FORMAT);
+                stats.addWallTime(System.nanoTime() - start);
+            }
+
+            return resultStr.toString();
+        } finally {
+            searchFinished(start, before);
+        }
+    }
 
-        List<SearchResult> results = new ArrayList<>();
-        for(String file: dw.listFiles(config.getRootDirectory())) {
-            results.addAll(FileInspector.search(
-                    file, config.getSearchTerms(), config.isCaseSensitive(), config.isLongPaths()
-            ));
+    /**
+     * Start search and write the results of every file as soon as the file is inspected
+     *
+     * @param out Receives the formatted results, flushed after every file
+     * @throws IOException Writing the results failed
+     */
+    public void search(Writer out) throws IOException {
+        long start = System.nanoTime();
+        long[] before = searchStarted();
+        try {
+            searchStreamed(out, start);
+        } finally {
+            searchFinished(start, before);
         }
+    }
 
-        if(config.isShowLines())
-            resultStr.append(formatResultsForComplexOutput(results));
-        else
-            resultStr.append(formatResultsForSimpleOutput(results));
+    /**
+     * Write the results of every file as soon as the file is inspected
+     *
+     * @param out Receives the formatted results, flushed after every file
+     * @param start Start of the search, see {@link System#nanoTime()}
+     * @throws IOException Writing the results failed
+     */
+    private void searchStreamed(Writer out, long start) throws IOException {
+        out.write(formatHeader());
+        out.flush();
 
-        return resultStr.toString();
+        try {
+            inspectFiles(new ResultDispatcher(results -> {
+                try {
+                    if(stats == null) {
+                        out.write(formatFileResults(results));
+                    } else {
+                        // Called by one thread at a time, but possibly a different one every time
+                        SearchStats.Stopwatch watch = stats.stopwatch();
+                        watch.start();
+                        String formatted = formatFileResults(results);
+                        watch.stop(SearchStats.Phase.FORMAT);
+                        out.write(formatted);
+                    }
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, config.getMaxCount()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if(stats != null)
+            stats.addWallTime(System.nanoTime() - start);
+    }
+
+    /**
+     * Report the start of a search to the metrics
+     *
+     * @return Counters of the statistics before the search, NULL if metrics are not exposed
+     */
+    private long[] searchStarted() {
+        if(metrics == null)
+            return null;
+        metrics.searchStarted();
+        return new long[] {stats.getFilesSearched(), stats.getBytesRead()};
+    }
+
+    /**
+     * Report the end of a search to the metrics
+     *
+     * @param start Start of the search, see {@link System#nanoTime()}
+     * @param before Counters returned by {@link #searchStarted()}
+     */
+    private void searchFinished(long start, long[] before) {
+        if(before == null)
+            return;
+        metrics.searchFinished(System.nanoTime() - start, stats.getFilesSearched() - before[0],
+                stats.getBytesRead() - before[1]);
+    }
+
+    /**
+     * Format the statistics of the search as configured
+     *
+     * @return Text or JSON, empty if statistics are not enabled
+     */
+    public String formatStats() {
+        if(stats == null || !config.isStats())
+            return "";
+        return config.isStatsJson() ? stats.toJson() + System.lineSeparator() : stats.format();
+    }
+
+    public SearchConfiguration getConfig() {
+        return config;
+    }
+
+    public FileIndex getIndex() {
+        return index;
+    }
+
+    public void setIndex(FileIndex index) {
+        this.index = index;
+    }
+
+    public ContentCache getCache() {
+        return cache;
+    }
+
+    public void setCache(ContentCache cache) {
+        this.cache = cache;
+    }
+
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    public void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Report every search to the metrics, statistics are collected for this if not done already
+     *
+     * @param metrics Metrics to report to, NULL to not report
+     */
+    public void setMetrics(SearchMetrics metrics) {
+        this.metrics = metrics;
+        if(metrics != null && stats == null)
+            stats = new SearchStats();
     }
 }
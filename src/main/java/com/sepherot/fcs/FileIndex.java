@@ -0,0 +1,29 @@
+package com.sepherot.fcs;
+
+import java.util.List;
+
+/**
+ * Index which knows the files of a directory that may contain a term, so a search only has to read those files
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public interface FileIndex {
+    /**
+     * Find all files which may contain at least one of the terms
+     *
+     * @param terms Terms to search for, lowercased if the search is not case sensitive
+     * @param caseSensitive Search is case sensitive
+     * @param binaryFiles Binary files are searched and have to be included
+     * @return Paths of the candidate files, resolved against the indexed directory
+     */
+    List<String> candidates(List<String> terms, boolean caseSensitive, boolean binaryFiles);
+
+    /**
+     * Return number of indexed files
+     *
+     * @return Number of files
+     */
+    int getFileCount();
+}
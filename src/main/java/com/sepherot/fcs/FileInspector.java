@@ -1,13 +1,15 @@
 package com.sepherot.fcs;
 
+import com.sepherot.fcs.data.BinaryMode;
 import com.sepherot.fcs.data.SearchResult;
-import javafx.util.Pair;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -18,72 +20,229 @@ import java.util.List;
  * @since       2018-07-22
  */
 public class FileInspector {
+    /**
+     * Size of the chunks a file is read and scanned in
+     */
+    protected static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Number of bytes at the start of a file checked to detect binary files
+     */
+    protected static final int BINARY_CHECK_SIZE = 8 * 1024;
+
+    /**
+     * Buffer reused for every file read by the same thread
+     */
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(CHUNK_SIZE));
+
+    /**
+     * Lines of a term found without tracking lines
+     */
+    private static final int[] NO_LINES = new int[0];
+
     private FileInspector() {}
 
     /**
-     * Return the whole content of the given file
-     *
-     * @param path Path to file
-     * @return Content of the file
+     * Collects the results of a single file
      */
-    protected static String readFile(String path) {
-        File f = new File(path);
-        if (!f.exists() || !f.isFile())
-            return "";
+    private static final class FileScan implements TermMatcher.MatchListener {
+        private final String path;
+        private final List<String> terms;
+        private final boolean showLines;
+        private boolean binary;
+        private final boolean[] found;
+        private int missing;
+        private final IntList[] lines;
 
-        try {
-            return new String(
-                    Files.readAllBytes(Paths.get(path))
-            );
-        } catch (IOException e) {
-            return "";
+        FileScan(String path, List<String> terms, boolean showLines) {
+            this.path = path;
+            this.terms = terms;
+            this.showLines = showLines;
+            this.found = new boolean[terms.size()];
+            this.missing = terms.size();
+            this.lines = new IntList[terms.size()];
+        }
+
+        @Override
+        public boolean onMatch(int term, int line) {
+            if(!found[term]) {
+                found[term] = true;
+                missing--;
+            }
+            if(!showLines || binary)
+                return missing > 0;
+
+            if(lines[term] == null)
+                lines[term] = new IntList();
+
+            // Only report every line once per term
+            if(lines[term].isEmpty() || lines[term].last() != line)
+                lines[term].add(line);
+            return true;
+        }
+
+        /**
+         * Mark the file as binary, from now on only which terms were found is reported, not their lines
+         */
+        void markBinary() {
+            binary = true;
+        }
+
+        /**
+         * Return results of the file
+         *
+         * @return Results with the line numbers trimmed to their count
+         */
+        FileResults getResults() {
+            int[][] byTerm = new int[terms.size()][];
+            for(int t = 0; t < terms.size(); t++) {
+                if(found[t])
+                    byTerm[t] = showLines && !binary ? lines[t].toArray() : NO_LINES;
+            }
+            return new FileResults(path, terms, showLines, binary, byTerm);
         }
     }
 
     /**
-     * Calculates the number of lines in the given string
+     * Checks if the content looks like a binary file
+     *
+     * Content is binary if it contains a NUL byte or if more than 30 percent of the bytes are control characters
+     * not used in text files.
      *
-     * @param content String to count lines in
-     * @param offset Offset to add to the result
-     * @return Number of lines
+     * @param chunk Start of the file, the bytes between position and limit are checked
+     * @return Returns TRUE if the content is binary, otherwise FALSE
      */
-    protected static int getNumberOfLines(String content, int offset) {
-        String lineSeparator = "\n";
-        int lastIndex = 0;
-        int count = 1;
+    protected static boolean isBinary(ByteBuffer chunk) {
+        int end = Math.min(chunk.limit(), chunk.position() + BINARY_CHECK_SIZE);
+        int nonText = 0;
 
-        while(lastIndex != -1) {
-            lastIndex = content.indexOf(lineSeparator, lastIndex);
-            if(lastIndex != -1) {
-                count++;
-                lastIndex += 1;
-            }
+        for(int i = chunk.position(); i < end; i++) {
+            int b = chunk.get(i) & 0xFF;
+            if(b == 0)
+                return true;
+            if((b < 0x20 && b != '\t' && b != '\n' && b != '\r' && b != '\f' && b != '\b' && b != 0x1B) || b == 0x7F)
+                nonText++;
         }
 
-        return count + offset;
+        return nonText * 10 > (end - chunk.position()) * 3;
     }
 
     /**
-     * Calculates the number of lines in the given string
+     * Read the given file in chunks of fixed size and pass the raw bytes to the matcher
+     *
+     * Only one chunk of the file is held in memory at a time, no matter how large the file is, and the content is
+     * never decoded. The cursor of the matcher keeps its state between the chunks, so matches spanning two chunks are
+     * found without any overlap. The first chunk is also used to detect binary files before reading any further.
      *
-     * @param content String to count lines in
-     * @return Number of lines
+     * @param path Path to file
+     * @param matcher Matcher for the search terms
+     * @param binaryMode How to handle binary files
+     * @param cache Cache for the content of the file, may be NULL
+     * @param stats Receives the time of reading and matching, may be NULL
+     * @param scan Receives all matches
      */
-    protected static int getNumberOfLines(String content) {
-        return getNumberOfLines(content, 0);
+    private static void scanFile(String path, TermMatcher matcher, BinaryMode binaryMode, ContentCache cache,
+                                 SearchStats stats, FileScan scan) {
+        File f = new File(path);
+        if (!f.exists() || !f.isFile())
+            return;
+
+        SearchStats.Stopwatch watch = stats == null ? null : stats.stopwatch();
+        if(cache != null) {
+            if(watch != null)
+                watch.start();
+            // Check for binary files before the cache reads them completely, skipped files are not cached
+            boolean[] skipped = new boolean[1];
+            ByteBuffer content = cache.get(f.toPath(),
+                    start -> binaryMode != BinaryMode.SKIP || !(skipped[0] = isBinary(start)),
+                    stats == null ? null : stats::addBytesRead);
+            if(watch != null)
+                watch.stop(SearchStats.Phase.READ);
+            if(skipped[0]) {
+                if(stats != null)
+                    stats.addBinaryFileSkipped();
+                return;
+            }
+            if(content != null) {
+                scanContent(content, matcher, binaryMode, stats, scan);
+                return;
+            }
+        }
+
+        ByteBuffer bytes = BUFFERS.get();
+        TermMatcher.Cursor cursor = matcher.newCursor();
+
+        bytes.clear();
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            boolean firstChunk = true;
+            while(true) {
+                if(watch != null)
+                    watch.start();
+                int read = channel.read(bytes);
+                if(watch != null) {
+                    watch.stop(SearchStats.Phase.READ);
+                    stats.addBytesRead(Math.max(read, 0));
+                }
+                if(read == -1)
+                    break;
+
+                bytes.flip();
+                if(firstChunk && binaryMode != BinaryMode.TEXT && isBinary(bytes)) {
+                    if(binaryMode == BinaryMode.SKIP) {
+                        if(stats != null)
+                            stats.addBinaryFileSkipped();
+                        return;
+                    }
+                    scan.markBinary();
+                }
+                firstChunk = false;
+
+                if(watch != null) {
+                    stats.addBytesScanned(bytes.remaining());
+                    watch.start();
+                }
+                boolean more = cursor.scan(bytes, scan);
+                if(watch != null)
+                    watch.stop(SearchStats.Phase.MATCH);
+                if(!more)
+                    return;
+                bytes.clear();
+            }
+        } catch (IOException e) {
+            // Unreadable files are treated like empty files
+        }
     }
 
     /**
-     * Split content into two paths at the given position
+     * Scan content which is completely held in memory
      *
-     * @param content Content to split
-     * @param pos Position to split content at (-1 = don't split, move everything into first part)
-     * @return Returns tuple containing the both results of the split
+     * @param content Content of the file, the bytes between position and limit are scanned
+     * @param matcher Matcher for the search terms
+     * @param binaryMode How to handle binary files
+     * @param stats Receives the time of matching, may be NULL
+     * @param scan Receives all matches
      */
-    protected static Pair<String, String> splitContent(String content, int pos) {
-        if(pos == -1)
-            return new Pair<>(content, "");
-        return new Pair<>(content.substring(0, pos), content.substring(pos));
+    private static void scanContent(ByteBuffer content, TermMatcher matcher, BinaryMode binaryMode, SearchStats stats,
+                                    FileScan scan) {
+        if(binaryMode != BinaryMode.TEXT && isBinary(content)) {
+            if(binaryMode == BinaryMode.SKIP) {
+                if(stats != null)
+                    stats.addBinaryFileSkipped();
+                return;
+            }
+            scan.markBinary();
+        }
+
+        if(stats == null) {
+            matcher.newCursor().scan(content, scan);
+            return;
+        }
+
+        SearchStats.Stopwatch watch = stats.stopwatch();
+        stats.addBytesScanned(content.remaining());
+        watch.start();
+        matcher.newCursor().scan(content, scan);
+        watch.stop(SearchStats.Phase.MATCH);
     }
 
     /**
@@ -95,16 +254,7 @@ public class FileInspector {
      * @return Returns a SearchResult or NULL if nothing was found
      */
     public static SearchResult executeSearch(String path, String term, boolean caseSensitive) {
-        String content = readFile(path);
-
-        if(!caseSensitive) {
-            content = content.toLowerCase();
-            term = term.toLowerCase();
-        }
-
-        if(content.indexOf(term) != -1)
-            return new SearchResult(path, term, null);
-        return null;
+        return search(path, new TermMatcher(Collections.singletonList(term), caseSensitive), false).get(0);
     }
 
     /**
@@ -127,42 +277,7 @@ public class FileInspector {
      * @return Returns a list with all SearchResults
      */
     public static List<SearchResult> executeSearchShowLines(String path, String term, boolean caseSensitive) {
-        List<SearchResult> results = new ArrayList<>();
-        String curContent = readFile(path);
-        String untilTerm;
-        String lineSeparator = "\n";
-        int lineNumber = 0;
-
-        if(!caseSensitive) {
-            curContent = curContent.toLowerCase();
-            term = term.toLowerCase();
-        }
-
-        int posTerm = curContent.indexOf(term);
-        int posLineEnd = curContent.indexOf(lineSeparator, posTerm);
-        while(posTerm != -1) {
-            // Split content on first line end after first match
-            if(posLineEnd != -1) {
-                Pair<String, String> split = splitContent(curContent, posLineEnd + lineSeparator.length());
-                untilTerm = split.getKey().substring(0, split.getKey().length() - lineSeparator.length());
-                curContent = split.getValue();
-            }
-            else {
-                Pair<String, String> split = splitContent(curContent, -1);
-                untilTerm = split.getKey();
-                curContent = split.getValue();
-            }
-
-            // Get line number in which term was found
-            lineNumber = getNumberOfLines(untilTerm, lineNumber);
-            results.add(new SearchResult(path, term, lineNumber));
-
-            // Rerun search in rest of content
-            posTerm = curContent.indexOf(term);
-            posLineEnd = curContent.indexOf(lineSeparator, posTerm);
-        }
-
-        return results;
+        return search(path, new TermMatcher(Collections.singletonList(term), caseSensitive), true);
     }
 
     /**
@@ -176,6 +291,87 @@ public class FileInspector {
         return executeSearchShowLines(path, term, false);
     }
 
+    /**
+     * Searches in the given file for all terms of the matcher in a single pass, keeping the results compact
+     *
+     * @param path Path to file
+     * @param matcher Precompiled matcher for the search terms
+     * @param showLines Track lines of appearance
+     * @param binaryMode How to handle binary files
+     * @param cache Cache for the content of the file, NULL to always read the file
+     * @param stats Receives counters and timings of the file, NULL to not collect statistics
+     * @return Line numbers of the file by term
+     */
+    public static FileResults scan(String path, TermMatcher matcher, boolean showLines, BinaryMode binaryMode,
+                                   ContentCache cache, SearchStats stats) {
+        long start = stats == null ? 0 : System.nanoTime();
+        FileScan scan = new FileScan(path, matcher.getTerms(), showLines);
+        scanFile(path, matcher, binaryMode, cache, stats, scan);
+        FileResults results = scan.getResults();
+
+        if(stats != null) {
+            stats.addFile(new File(path).length(), System.nanoTime() - start);
+            stats.addMatches(results.getMatchCount());
+        }
+        return results;
+    }
+
+    /**
+     * Searches in the given file for all terms of the matcher in a single pass
+     *
+     * @param path Path to file
+     * @param matcher Precompiled matcher for the search terms
+     * @param showLines Track lines of appearance
+     * @param binaryMode How to handle binary files
+     * @param cache Cache for the content of the file, NULL to always read the file
+     * @param stats Receives counters and timings of the file, NULL to not collect statistics
+     * @return List with search results, ordered by term
+     */
+    public static List<SearchResult> search(String path, TermMatcher matcher, boolean showLines, BinaryMode binaryMode,
+                                            ContentCache cache, SearchStats stats) {
+        return scan(path, matcher, showLines, binaryMode, cache, stats).toSearchResults();
+    }
+
+    /**
+     * Searches in the given file for all terms of the matcher in a single pass
+     *
+     * @param path Path to file
+     * @param matcher Precompiled matcher for the search terms
+     * @param showLines Track lines of appearance
+     * @param binaryMode How to handle binary files
+     * @param cache Cache for the content of the file, NULL to always read the file
+     * @return List with search results, ordered by term
+     */
+    public static List<SearchResult> search(String path, TermMatcher matcher, boolean showLines, BinaryMode binaryMode,
+                                            ContentCache cache) {
+        return search(path, matcher, showLines, binaryMode, cache, null);
+    }
+
+    /**
+     * Searches in the given file for all terms of the matcher in a single pass
+     *
+     * @param path Path to file
+     * @param matcher Precompiled matcher for the search terms
+     * @param showLines Track lines of appearance
+     * @param binaryMode How to handle binary files
+     * @return List with search results, ordered by term
+     */
+    public static List<SearchResult> search(String path, TermMatcher matcher, boolean showLines, BinaryMode binaryMode) {
+        return search(path, matcher, showLines, binaryMode, null);
+    }
+
+    /**
+     * Searches in the given file for all terms of the matcher in a single pass, binary files are searched like text
+     *
+     * @param path Path to file
+     * @param matcher Precompiled matcher for the search terms
+     * @param showLines Track lines of appearance
+     * @return List with search results, ordered by term
+     */
+    public static List<SearchResult> search(String path, TermMatcher matcher, boolean showLines) {
+        return search(path, matcher, showLines, BinaryMode.TEXT);
+    }
+
     /**
      * Searches in the given file for the given terms
      *
@@ -186,16 +382,7 @@ public class FileInspector {
      * @return List with search results
      */
     public static List<SearchResult> search(String path, List<String> terms, boolean caseSensitive, boolean showLines) {
-        List<SearchResult> results = new ArrayList<>();
-
-        for(String term: terms) {
-            if(showLines)
-                results.addAll(executeSearchShowLines(path, term, caseSensitive));
-            else
-                results.add(executeSearch(path, term, caseSensitive));
-        }
-
-        return results;
+        return search(path, new TermMatcher(terms, caseSensitive), showLines);
     }
 
     /**
@@ -0,0 +1,143 @@
+package com.sepherot.fcs;
+
+import com.sepherot.fcs.data.SearchResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Results of a single file, the line numbers of every term are kept in a primitive array
+ *
+ * A hit only costs the four bytes of its line number, {@link SearchResult} objects are created on demand by
+ * {@link #toSearchResults()}.
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public final class FileResults {
+    private final String path;
+    private final List<String> terms;
+    private final boolean linesTracked;
+    private final boolean binary;
+
+    /**
+     * Line numbers in ascending order by term, NULL if the term was not found, empty if lines were not tracked or the
+     * file is binary
+     */
+    private final int[][] lines;
+
+    /**
+     * Create new results
+     *
+     * @param path Path to file
+     * @param terms Terms searched for, in the order of the matcher
+     * @param linesTracked Line numbers were tracked
+     * @param lines Line numbers by term, NULL if the term was not found, empty if lines were not tracked
+     */
+    public FileResults(String path, List<String> terms, boolean linesTracked, int[][] lines) {
+        this(path, terms, linesTracked, false, lines);
+    }
+
+    /**
+     * Create new results
+     *
+     * @param path Path to file
+     * @param terms Terms searched for, in the order of the matcher
+     * @param linesTracked Line numbers were requested
+     * @param binary File is binary and was only checked for matches, the lines of found terms are empty
+     * @param lines Line numbers by term, NULL if the term was not found, empty if lines were not tracked
+     */
+    public FileResults(String path, List<String> terms, boolean linesTracked, boolean binary, int[][] lines) {
+        this.path = path;
+        this.terms = terms;
+        this.linesTracked = linesTracked;
+        this.binary = binary;
+        this.lines = lines;
+    }
+
+    /**
+     * Checks if no term was found
+     *
+     * @return Returns TRUE if the file doesn't contain any term, otherwise FALSE
+     */
+    public boolean isEmpty() {
+        for(int[] l: lines) {
+            if(l != null)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Return the number of matches, every line of a term counts, a term found without tracking lines counts once
+     *
+     * @return Number of matches
+     */
+    public int getMatchCount() {
+        int count = 0;
+        for(int[] l: lines) {
+            if(l != null)
+                count += Math.max(1, l.length);
+        }
+        return count;
+    }
+
+    /**
+     * Return the indices of the found terms, sorted by term
+     *
+     * @return Indices into the terms
+     */
+    public int[] sortedTerms() {
+        return ResultStore.sortedIds(terms, t -> lines[t] != null);
+    }
+
+    /**
+     * Create search results for the file
+     *
+     * @return Results ordered by term, with NULL for each term not found if lines are not tracked. If lines are tracked
+     *         but the file is binary, every found term has one result without line number.
+     */
+    public List<SearchResult> toSearchResults() {
+        List<SearchResult> results = new ArrayList<>();
+        for(int t = 0; t < terms.size(); t++) {
+            if(!linesTracked) {
+                results.add(lines[t] != null ? new SearchResult(path, terms.get(t), null) : null);
+                continue;
+            }
+            if(lines[t] == null)
+                continue;
+            if(lines[t].length == 0)
+                results.add(new SearchResult(path, terms.get(t), null));
+            for(int line: lines[t])
+                results.add(new SearchResult(path, terms.get(t), line));
+        }
+        return results;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public List<String> getTerms() {
+        return terms;
+    }
+
+    public boolean isLinesTracked() {
+        return linesTracked;
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Return the lines a term was found in
+     *
+     * @param term Index of the term
+     * @return Line numbers in ascending order, NULL if the term was not found, empty if lines were not tracked
+     */
+    public int[] getLines(int term) {
+        return lines[term];
+    }
+}
@@ -0,0 +1,258 @@
+package com.sepherot.fcs;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Rules of the .gitignore and .ignore files of a directory and all directories above it
+ *
+ * All patterns of one directory are compiled into a single regular expression. Only directories containing negated
+ * patterns need to check their patterns one by one, because there the last matching pattern decides.
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+class IgnoreRules {
+    /**
+     * Names of the files containing ignore patterns, read in this order
+     */
+    static final String[] IGNORE_FILES = {".gitignore", ".ignore"};
+
+    /**
+     * Result of matching a path against the patterns of one directory
+     */
+    private enum Decision { NONE, IGNORE, INCLUDE }
+
+    /**
+     * Single pattern of an ignore file
+     */
+    private static final class Rule {
+        private final Pattern pattern;
+        private final boolean negated;
+        private final boolean directoryOnly;
+
+        Rule(Pattern pattern, boolean negated, boolean directoryOnly) {
+            this.pattern = pattern;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+        }
+    }
+
+    private final IgnoreRules parent;
+    private final Path base;
+    private final List<Rule> rules;
+
+    /**
+     * Patterns have to be checked one by one, because some of them are negated
+     */
+    private final boolean ordered;
+
+    /**
+     * Combined patterns for all paths and for directories only, NULL if there are no such patterns
+     */
+    private final Pattern anyPath;
+    private final Pattern directoriesOnly;
+
+    private IgnoreRules(IgnoreRules parent, Path base, List<Rule> rules) {
+        this.parent = parent;
+        this.base = base;
+        this.rules = rules;
+
+        boolean negations = false;
+        List<String> any = new ArrayList<>();
+        List<String> directories = new ArrayList<>();
+        for(Rule r: rules) {
+            negations |= r.negated;
+            (r.directoryOnly ? directories : any).add(r.pattern.pattern());
+        }
+
+        this.ordered = negations;
+        this.anyPath = negations ? null : combine(any);
+        this.directoriesOnly = negations ? null : combine(directories);
+    }
+
+    /**
+     * Read the ignore files of the directory and attach them to the rules of the directory above
+     *
+     * @param parent Rules of the directory above, NULL for the root directory
+     * @param dir Directory to read the ignore files from
+     * @return Rules valid inside the directory, the parent itself if the directory has no ignore files
+     */
+    static IgnoreRules load(IgnoreRules parent, Path dir) {
+        List<Rule> rules = new ArrayList<>();
+        for(String name: IGNORE_FILES) {
+            Path file = dir.resolve(name);
+            if(!Files.isRegularFile(file))
+                continue;
+
+            try {
+                for(String line: Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    Rule r = parseRule(line);
+                    if(r != null)
+                        rules.add(r);
+                }
+            } catch (IOException e) {
+                // Unreadable ignore files are skipped
+            }
+        }
+
+        if(rules.isEmpty())
+            return parent;
+        return new IgnoreRules(parent, dir, rules);
+    }
+
+    /**
+     * Parse one line of an ignore file
+     *
+     * @param line Line to parse
+     * @return Parsed rule or NULL if the line is empty or a comment
+     */
+    private static Rule parseRule(String line) {
+        String pattern = line;
+
+        // Trailing spaces are ignored unless escaped
+        int end = pattern.length();
+        while(end > 0 && pattern.charAt(end - 1) == ' ' && !(end > 1 && pattern.charAt(end - 2) == '\\'))
+            end--;
+        pattern = pattern.substring(0, end);
+
+        if(pattern.isEmpty() || pattern.startsWith("#"))
+            return null;
+
+        boolean negated = pattern.startsWith("!");
+        if(negated)
+            pattern = pattern.substring(1);
+        else if(pattern.startsWith("\\!") || pattern.startsWith("\\#"))
+            pattern = pattern.substring(1);
+
+        boolean directoryOnly = pattern.endsWith("/");
+        if(directoryOnly)
+            pattern = pattern.substring(0, pattern.length() - 1);
+
+        // Patterns without inner slash match at any depth, otherwise relative to the directory of the ignore file
+        boolean anchored = pattern.contains("/");
+        if(pattern.startsWith("/"))
+            pattern = pattern.substring(1);
+        if(pattern.isEmpty())
+            return null;
+
+        String regex = (anchored ? "" : "(?:.*/)?") + globToRegex(pattern);
+        return new Rule(Pattern.compile(regex), negated, directoryOnly);
+    }
+
+    /**
+     * Convert a glob pattern into a regular expression
+     *
+     * Supports '*' and '?' within one path element, '**' across path elements and character classes.
+     *
+     * @param glob Glob pattern, paths separated by '/'
+     * @return Regular expression matching the same paths
+     */
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+
+        for(int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            switch(c) {
+                case '*':
+                    if(i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        if(i + 2 < glob.length() && glob.charAt(i + 2) == '/') {
+                            regex.append("(?:.*/)?");
+                            i += 2;
+                        }
+                        else {
+                            regex.append(".*");
+                            i++;
+                        }
+                    }
+                    else
+                        regex.append("[^/]*");
+                    break;
+                case '?':
+                    regex.append("[^/]");
+                    break;
+                case '[':
+                    int close = glob.indexOf(']', i + 2);
+                    if(close == -1) {
+                        regex.append("\\[");
+                        break;
+                    }
+                    String content = glob.substring(i + 1, close);
+                    if(content.startsWith("!"))
+                        content = "^" + content.substring(1);
+                    regex.append('[').append(content.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                    i = close;
+                    break;
+                case '\\':
+                    if(i + 1 < glob.length())
+                        regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                    break;
+                default:
+                    if("().{}+|^$".indexOf(c) != -1)
+                        regex.append('\\');
+                    regex.append(c);
+            }
+        }
+
+        return regex.toString();
+    }
+
+    /**
+     * Join multiple regular expressions into one
+     *
+     * @param regexes Regular expressions to join
+     * @return Pattern matching if any of the expressions matches, NULL if there are none
+     */
+    private static Pattern combine(List<String> regexes) {
+        if(regexes.isEmpty())
+            return null;
+        return Pattern.compile("(?:" + String.join(")|(?:", regexes) + ")");
+    }
+
+    /**
+     * Checks if the path is excluded by the rules of this or any directory above
+     *
+     * @param path Path to check, has to be below the directory of the rules
+     * @param directory Path points to a directory
+     * @return Returns TRUE if the path is ignored, otherwise FALSE
+     */
+    boolean isIgnored(Path path, boolean directory) {
+        // Rules of deeper directories override the rules above
+        for(IgnoreRules r = this; r != null; r = r.parent) {
+            Decision d = r.decide(path, directory);
+            if(d != Decision.NONE)
+                return d == Decision.IGNORE;
+        }
+        return false;
+    }
+
+    /**
+     * Match the path against the rules of this directory only
+     *
+     * @param path Path to check
+     * @param directory Path points to a directory
+     * @return Decision of the last matching rule
+     */
+    private Decision decide(Path path, boolean directory) {
+        String relative = base.relativize(path).toString().replace('\\', '/');
+
+        if(!ordered) {
+            boolean ignored = (anyPath != null && anyPath.matcher(relative).matches())
+                    || (directory && directoriesOnly != null && directoriesOnly.matcher(relative).matches());
+            return ignored ? Decision.IGNORE : Decision.NONE;
+        }
+
+        for(int i = rules.size() - 1; i >= 0; i--) {
+            Rule r = rules.get(i);
+            if((directory || !r.directoryOnly) && r.pattern.matcher(relative).matches())
+                return r.negated ? Decision.INCLUDE : Decision.IGNORE;
+        }
+        return Decision.NONE;
+    }
+}
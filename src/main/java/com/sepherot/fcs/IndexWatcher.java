@@ -0,0 +1,233 @@
+package com.sepherot.fcs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a {@link LiveIndex} up to date by watching the indexed directory for changes
+ *
+ * Every directory the walker of the index would enter is registered with a {@link WatchService}, ignored directories
+ * and directories rejected by the path filter are not watched. Events are collected until no new event arrived for a
+ * short time, so a burst of changes, e.g. a checkout, is applied as one batch and every path is read only once. If the
+ * file system dropped events, the whole directory is scanned again. Changes of ignore files also lead to a full scan,
+ * because they may include or exclude any file below. Events of the index file and its temporary files are dropped and
+ * the listener is only called if the index changed, so saving the index doesn't trigger the watcher again.
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public class IndexWatcher implements Closeable {
+    /**
+     * Time without new events after which the collected events are applied, in milliseconds
+     */
+    protected static final long QUIET_PERIOD = 200;
+
+    /**
+     * Maximum time events are collected before they are applied, even if events keep arriving, in milliseconds
+     */
+    protected static final long MAX_DELAY = 2000;
+
+    /**
+     * Receives the index after every applied batch of changes
+     */
+    public interface Listener {
+        /**
+         * Called on the thread of the watcher after a batch of events changed the index
+         *
+         * @param index Updated index
+         * @throws IOException Processing the change failed, stops the watcher
+         */
+        void onChange(LiveIndex index) throws IOException;
+    }
+
+    private final LiveIndex index;
+    private final Listener listener;
+    private final WatchService service;
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> keys = new ConcurrentHashMap<>();
+    private final Thread thread;
+    private volatile IOException failure;
+
+    /**
+     * Create new watcher, call {@link #start()} to begin watching
+     *
+     * @param index Index to keep up to date, should be filled before
+     * @param listener Receives the index after every change, may be NULL
+     * @throws IOException Creating the watch service failed
+     */
+    public IndexWatcher(LiveIndex index, Listener listener) throws IOException {
+        this.index = index;
+        this.listener = listener;
+        this.service = FileSystems.getDefault().newWatchService();
+        this.thread = new Thread(this::run, "fcs-index-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Register all directories and start processing events in the background
+     *
+     * @throws IOException Registering the directories failed
+     */
+    public void start() throws IOException {
+        register(index.getRoot());
+        thread.start();
+    }
+
+    /**
+     * Register the directory and all directories below it which the walker of the index would enter
+     *
+     * @param start Directory to register
+     * @throws IOException Registering the directories failed
+     */
+    private void register(Path start) throws IOException {
+        Path root = index.getRoot();
+        List<Path> found = index.getWalker().listDirectories(root.toString(), start.toString());
+
+        // After a full scan, stop watching directories which are ignored now
+        if(start.equals(root)) {
+            Set<Path> watched = new HashSet<>(found);
+            for(Map.Entry<Path, WatchKey> e: keys.entrySet()) {
+                if(!watched.contains(e.getKey())) {
+                    e.getValue().cancel();
+                    directories.remove(e.getValue());
+                    keys.remove(e.getKey());
+                }
+            }
+        }
+
+        for(Path dir: found) {
+            if(keys.containsKey(dir))
+                continue;
+            try {
+                WatchKey key = dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                directories.put(key, dir);
+                keys.put(dir, key);
+            } catch (NoSuchFileException e) {
+                // Deleted again since it was listed
+            }
+        }
+    }
+
+    /**
+     * Wait for events, collect them and apply them to the index until the watcher is closed
+     */
+    private void run() {
+        try {
+            while(true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                boolean overflow = collect(service.take(), changed);
+
+                // Coalesce bursts of events into one batch
+                long deadline = System.currentTimeMillis() + MAX_DELAY;
+                WatchKey key;
+                while(System.currentTimeMillis() < deadline
+                        && (key = service.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(key, changed);
+                }
+
+                long version = index.getVersion();
+                apply(changed, overflow);
+                if(listener != null && index.getVersion() != version)
+                    listener.onChange(index);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Watcher was closed
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Collect the paths of all events of a key, except of the index file and its temporary files
+     *
+     * @param key Signalled key
+     * @param changed Receives the changed paths
+     * @return Returns TRUE if events were lost, otherwise FALSE
+     */
+    private boolean collect(WatchKey key, Set<Path> changed) {
+        boolean overflow = false;
+        Path dir = directories.get(key);
+
+        for(WatchEvent<?> event: key.pollEvents()) {
+            if(event.kind() == StandardWatchEventKinds.OVERFLOW)
+                overflow = true;
+            else if(dir != null && !DirWalker.isIndexFile((Path) event.context()))
+                changed.add(dir.resolve((Path) event.context()));
+        }
+
+        if(!key.reset()) {
+            directories.remove(key);
+            if(dir != null)
+                keys.remove(dir, key);
+        }
+        return overflow;
+    }
+
+    /**
+     * Apply the collected changes to the index
+     *
+     * @param changed Changed paths
+     * @param overflow Events were lost
+     * @throws IOException Registering new directories failed
+     */
+    private void apply(Set<Path> changed, boolean overflow) throws IOException {
+        boolean rescan = overflow;
+        for(Path path: changed) {
+            if(Arrays.asList(IgnoreRules.IGNORE_FILES).contains(String.valueOf(path.getFileName())))
+                rescan = true;
+        }
+
+        if(rescan) {
+            register(index.getRoot());
+            index.rescan();
+            return;
+        }
+
+        for(Path path: changed) {
+            if(Files.isDirectory(path) && !keys.containsKey(path))
+                register(path);
+            index.refresh(path);
+        }
+    }
+
+    /**
+     * Block until the watcher is closed or failed
+     *
+     * @throws IOException Watching the directory failed
+     * @throws InterruptedException Waiting was interrupted
+     */
+    public void await() throws IOException, InterruptedException {
+        thread.join();
+        if(failure != null)
+            throw failure;
+    }
+
+    /**
+     * Stop watching, the index keeps its last state
+     *
+     * @throws IOException Closing the watch service failed
+     */
+    @Override
+    public void close() throws IOException {
+        service.close();
+    }
+}
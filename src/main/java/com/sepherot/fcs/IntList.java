@@ -0,0 +1,87 @@
+package com.sepherot.fcs;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, avoids boxing every value in large collections
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public final class IntList {
+    private int[] values;
+    private int size;
+
+    /**
+     * Create new empty list
+     *
+     * @param capacity Number of values which fit into the list before it has to grow
+     */
+    public IntList(int capacity) {
+        this.values = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Create new empty list
+     */
+    public IntList() {
+        this(4);
+    }
+
+    /**
+     * Append value at the end of the list
+     *
+     * @param value Value to append
+     */
+    public void add(int value) {
+        if(size == values.length)
+            values = Arrays.copyOf(values, size * 2);
+        values[size++] = value;
+    }
+
+    /**
+     * Return value at the given position
+     *
+     * @param index Position of the value
+     * @return Value at the position
+     */
+    public int get(int index) {
+        if(index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return values[index];
+    }
+
+    /**
+     * Return last value of the list
+     *
+     * @return Last value
+     */
+    public int last() {
+        return get(size - 1);
+    }
+
+    /**
+     * Remove all values, the capacity is kept
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Copy values into an array of the exact size
+     *
+     * @return Array with all values
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
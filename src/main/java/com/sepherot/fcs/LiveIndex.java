@@ -0,0 +1,352 @@
+package com.sepherot.fcs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Index of a directory held in memory, which can be changed file by file while it is queried
+ *
+ * Every file keeps its own sorted trigrams, so a change only replaces the entry of the file and its postings without
+ * touching the entries of other files. The postings map every trigram to the files containing it, a query intersects
+ * the postings of the trigrams of a term instead of checking every file. The entries are immutable and entries and
+ * postings are stored in concurrent maps, queries never wait for updates. The index can be saved in the format of the
+ * {@link TrigramIndex}.
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public class LiveIndex implements FileIndex {
+    /**
+     * Indexed state of a single file
+     */
+    private static final class Entry {
+        private final long size;
+        private final long modified;
+        private final boolean binary;
+
+        /**
+         * Distinct trigrams in ascending order, empty for binary files
+         */
+        private final int[] trigrams;
+
+        Entry(long size, long modified, boolean binary, int[] trigrams) {
+            this.size = size;
+            this.modified = modified;
+            this.binary = binary;
+            this.trigrams = trigrams;
+        }
+    }
+
+    private final Path root;
+    private final DirWalker walker;
+
+    /**
+     * Entries by path relative to the root directory, sorted to remove whole directories at once
+     */
+    private final ConcurrentSkipListMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+
+    /**
+     * Paths of the files containing a trigram by trigram, binary files have no trigrams and are kept separately
+     */
+    private final Map<Integer, Set<String>> postings = new ConcurrentHashMap<>();
+    private final Set<String> binaries = ConcurrentHashMap.newKeySet();
+    private final TrigramIndex.Tokenizer tokenizer = new TrigramIndex.Tokenizer();
+
+    /**
+     * Number of changes applied to the entries so far
+     */
+    private volatile long version;
+
+    /**
+     * Create new empty index, call {@link #rescan()} to fill it
+     *
+     * @param root Directory to index
+     * @param walker Walker selecting the files to index
+     */
+    public LiveIndex(Path root, DirWalker walker) {
+        this.root = root;
+        this.walker = walker;
+    }
+
+    /**
+     * Walk through the whole directory, read new and changed files and remove files which no longer exist
+     *
+     * @return Number of files read
+     */
+    public synchronized int rescan() {
+        Path indexFile = root.resolve(TrigramIndex.INDEX_FILE);
+        Set<String> found = new HashSet<>();
+        List<Path> files = new ArrayList<>();
+        walker.walk(root.toString(), file -> {
+            synchronized(files) {
+                files.add(Paths.get(file));
+            }
+            return true;
+        });
+
+        int read = 0;
+        for(Path file: files) {
+            if(file.equals(indexFile))
+                continue;
+            found.add(TrigramIndex.relativize(root, file));
+            if(refreshFile(file))
+                read++;
+        }
+        for(String relative: entries.keySet()) {
+            if(!found.contains(relative))
+                removeEntry(relative);
+        }
+        return read;
+    }
+
+    /**
+     * Apply a change of the file system to the index
+     *
+     * Deleted files and directories are removed, new and changed files are read. A new directory is read
+     * completely, because its files may have been moved in without an event of their own.
+     *
+     * @param path Changed file or directory below the root directory
+     * @return Number of files read
+     */
+    public synchronized int refresh(Path path) {
+        if(path.equals(root.resolve(TrigramIndex.INDEX_FILE)))
+            return 0;
+
+        if(!Files.isDirectory(path)) {
+            if(Files.isRegularFile(path) && walker.accepts(root.toString(), path.toString(), true))
+                return refreshFile(path) ? 1 : 0;
+            remove(path);
+            return 0;
+        }
+
+        int read = 0;
+        try(Stream<Path> files = Files.walk(path)) {
+            for(Path file: (Iterable<Path>) files::iterator) {
+                if(Files.isRegularFile(file) && walker.accepts(root.toString(), file.toString(), true) && refreshFile(file))
+                    read++;
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // Directory was deleted again while reading it
+        }
+        return read;
+    }
+
+    /**
+     * Remove a file or all files of a directory from the index
+     *
+     * @param path Removed file or directory
+     */
+    public synchronized void remove(Path path) {
+        String relative = TrigramIndex.relativize(root, path);
+        removeEntry(relative);
+        for(String file: new ArrayList<>(entries.subMap(relative + "/", relative + "/\uffff").keySet()))
+            removeEntry(file);
+    }
+
+    /**
+     * Store the entry of a file and update the postings
+     *
+     * New postings are added before stale ones are removed, so a concurrent query never misses the file.
+     *
+     * @param relative Path relative to the root directory
+     * @param entry New entry of the file
+     */
+    private void putEntry(String relative, Entry entry) {
+        Entry previous = entries.put(relative, entry);
+        version++;
+        if(entry.binary)
+            binaries.add(relative);
+        for(int trigram: entry.trigrams)
+            postings.computeIfAbsent(trigram, k -> ConcurrentHashMap.newKeySet()).add(relative);
+
+        if(previous == null)
+            return;
+        if(!entry.binary)
+            binaries.remove(relative);
+        for(int trigram: previous.trigrams) {
+            if(Arrays.binarySearch(entry.trigrams, trigram) < 0)
+                removePosting(trigram, relative);
+        }
+    }
+
+    /**
+     * Remove the entry of a file and its postings
+     *
+     * @param relative Path relative to the root directory
+     */
+    private void removeEntry(String relative) {
+        Entry previous = entries.remove(relative);
+        if(previous == null)
+            return;
+        version++;
+        binaries.remove(relative);
+        for(int trigram: previous.trigrams)
+            removePosting(trigram, relative);
+    }
+
+    /**
+     * Remove a file from the postings of a trigram, postings without files are dropped
+     *
+     * @param trigram Trigram
+     * @param relative Path relative to the root directory
+     */
+    private void removePosting(int trigram, String relative) {
+        postings.computeIfPresent(trigram, (k, files) -> {
+            files.remove(relative);
+            return files.isEmpty() ? null : files;
+        });
+    }
+
+    /**
+     * Read the file again if its size or modification time changed
+     *
+     * @param file Path to file
+     * @return Returns TRUE if the file was read, otherwise FALSE
+     */
+    private boolean refreshFile(Path file) {
+        String relative = TrigramIndex.relativize(root, file);
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            removeEntry(relative);
+            return false;
+        }
+
+        long modified = attrs.lastModifiedTime().toMillis();
+        Entry previous = entries.get(relative);
+        if(previous != null && previous.size == attrs.size() && previous.modified == modified)
+            return false;
+
+        IntList trigrams = tokenizer.tokenize(file);
+        int[] sorted = trigrams == null ? new int[0] : trigrams.toArray();
+        Arrays.sort(sorted);
+        putEntry(relative, new Entry(attrs.size(), modified, trigrams == null, sorted));
+        return true;
+    }
+
+    /**
+     * Find all files which may contain at least one of the terms
+     *
+     * Terms without trigrams can't be looked up, then all files are candidates.
+     *
+     * @param terms Terms to search for, lowercased if the search is not case sensitive
+     * @param caseSensitive Search is case sensitive
+     * @param binaryFiles Binary files are searched and have to be included
+     * @return Paths of the candidate files sorted by path, resolved against the indexed directory
+     */
+    @Override
+    public List<String> candidates(List<String> terms, boolean caseSensitive, boolean binaryFiles) {
+        Set<String> found = new TreeSet<>();
+        if(binaryFiles)
+            found.addAll(binaries);
+
+        for(String term: terms) {
+            int[] trigrams = TrigramIndex.termTrigrams(term.getBytes(Charset.defaultCharset()), caseSensitive);
+            if(trigrams.length == 0) {
+                for(String file: entries.keySet()) {
+                    if(!binaries.contains(file))
+                        found.add(file);
+                }
+                break;
+            }
+            found.addAll(intersect(trigrams));
+        }
+
+        List<String> files = new ArrayList<>(found.size());
+        for(String file: found)
+            files.add(root.resolve(file).toString());
+        return files;
+    }
+
+    /**
+     * Find all files which contain every trigram of a term
+     *
+     * @param trigrams Trigrams of the term
+     * @return Paths of the files relative to the root directory
+     */
+    private List<String> intersect(int[] trigrams) {
+        // Walk through the smallest postings and look up the files in the others
+        List<Set<String>> sets = new ArrayList<>();
+        for(int trigram: trigrams) {
+            Set<String> files = postings.get(trigram);
+            if(files == null)
+                return new ArrayList<>();
+            sets.add(files);
+        }
+        sets.sort(Comparator.comparingInt(Set::size));
+
+        List<String> result = new ArrayList<>();
+        for(String file: sets.get(0)) {
+            boolean all = true;
+            for(int i = 1; i < sets.size() && all; i++)
+                all = sets.get(i).contains(file);
+            if(all)
+                result.add(file);
+        }
+        return result;
+    }
+
+    /**
+     * Store the index in the indexed directory, searches with the index of the directory then use this state
+     *
+     * @throws IOException Writing the index failed
+     */
+    public void save() throws IOException {
+        // Snapshot, changes during saving are stored the next time
+        Map<String, Entry> snapshot = new TreeMap<>(entries);
+
+        List<TrigramIndex.FileEntry> files = new ArrayList<>();
+        Map<Integer, IntList> postings = new HashMap<>();
+        for(Map.Entry<String, Entry> e: snapshot.entrySet()) {
+            Entry entry = e.getValue();
+            int id = files.size();
+            files.add(new TrigramIndex.FileEntry(e.getKey(), entry.size, entry.modified,
+                    entry.binary ? TrigramIndex.FLAG_BINARY : 0));
+            for(int trigram: entry.trigrams)
+                postings.computeIfAbsent(trigram, k -> new IntList()).add(id);
+        }
+        TrigramIndex.write(root, files, postings);
+    }
+
+    @Override
+    public int getFileCount() {
+        return entries.size();
+    }
+
+    /**
+     * Return a counter which changes whenever a file is added, changed or removed
+     *
+     * @return Number of changes applied so far
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public DirWalker getWalker() {
+        return walker;
+    }
+}
@@ -1,15 +1,65 @@
 package com.sepherot.fcs;
 
+import com.sepherot.fcs.data.IndexCommand;
 import org.apache.commons.cli.ParseException;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
 public class Main {
     public static void main(String[] args) {
         try {
             FileContentSearch fcs = new FileContentSearch(args);
-            System.out.println(fcs.search());
+            if(fcs.getConfig().isHelp()) {
+                System.out.print(CmdParser.formatHelp());
+            }
+            else if(fcs.getConfig().isServer()) {
+                ContentCache cache = fcs.getConfig().getCacheSize() > 0
+                        ? new ContentCache(fcs.getConfig().getCacheSize(), fcs.getConfig().isCacheOffHeap())
+                        : null;
+                try(SearchServer server = new SearchServer(fcs.getConfig().getPort(), cache)) {
+                    if(fcs.getConfig().isJmx())
+                        server.setMetrics(fcs.getMetrics());
+                    System.out.println(String.format("Listening on port %d, stop with Ctrl+C", server.getPort()));
+                    server.run();
+                }
+            }
+            else if(fcs.getConfig().getIndexCommand() == IndexCommand.BUILD) {
+                int files = fcs.buildIndex();
+                System.out.println(String.format("Indexed %d files in %s", files, fcs.getConfig().getRootDirectory()));
+            }
+            else if(fcs.getConfig().getIndexCommand() == IndexCommand.UPDATE) {
+                int files = fcs.updateIndex();
+                System.out.println(String.format("Indexed %d new or changed files in %s", files, fcs.getConfig().getRootDirectory()));
+            }
+            else if(fcs.getConfig().getIndexCommand() == IndexCommand.WATCH) {
+                System.out.println(String.format("Watching %s, stop with Ctrl+C", fcs.getConfig().getRootDirectory()));
+                fcs.watchIndex();
+            }
+            else {
+                if(fcs.getConfig().isStream()) {
+                    Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+                    fcs.search(out);
+                }
+                else
+                    System.out.println(fcs.search());
+
+                // Keep the statistics apart from the results
+                System.err.print(fcs.formatStats());
+            }
         } catch (ParseException e) {
             System.out.println("Parsing commandline arguments failed. Use -h to show possible options.");
             e.printStackTrace();
+        } catch (IOException e) {
+            System.out.println("Writing search results or index failed.");
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage());
+            e.printStackTrace();
         }
     }
 }
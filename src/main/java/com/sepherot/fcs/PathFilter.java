@@ -0,0 +1,95 @@
+package com.sepherot.fcs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Include and exclude filters for the paths found while walking through the directories
+ *
+ * All globs and regular expressions of a kind are compiled once into a single pattern, so every path is checked with
+ * at most one match per kind. Paths are matched relative to the searched directory with '/' as separator. Globs
+ * without a '/' match the name of a file or directory at any depth, like in .gitignore files. Regular expressions
+ * match if they are found anywhere in the path.
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public class PathFilter {
+    /**
+     * Combined patterns, NULL if there are none of the kind
+     */
+    private final Pattern includes;
+    private final Pattern excludes;
+
+    /**
+     * Create new filter
+     *
+     * @param includeGlobs Only files matching one of the globs are accepted, NULL or empty to accept all files
+     * @param excludeGlobs Files and directories matching one of the globs are rejected, may be NULL
+     * @param includeRegexes Only files matching one of the regular expressions are accepted, may be NULL
+     * @param excludeRegexes Files and directories matching one of the regular expressions are rejected, may be NULL
+     */
+    public PathFilter(List<String> includeGlobs, List<String> excludeGlobs,
+                      List<String> includeRegexes, List<String> excludeRegexes) {
+        this.includes = combine(includeGlobs, includeRegexes);
+        this.excludes = combine(excludeGlobs, excludeRegexes);
+    }
+
+    /**
+     * Compile globs and regular expressions into a single pattern
+     *
+     * @param globs Glob patterns, may be NULL
+     * @param regexes Regular expressions, may be NULL
+     * @return Pattern found in a path if any of the globs or expressions matches, NULL if there are none
+     */
+    private static Pattern combine(List<String> globs, List<String> regexes) {
+        List<String> parts = new ArrayList<>();
+
+        if(globs != null) {
+            for(String glob: globs) {
+                String pattern = glob.startsWith("/") ? glob.substring(1) : glob;
+                boolean anchored = glob.contains("/");
+                parts.add((anchored ? "^" : "(?:^|/)") + IgnoreRules.globToRegex(pattern) + "$");
+            }
+        }
+        if(regexes != null)
+            parts.addAll(regexes);
+
+        if(parts.isEmpty())
+            return null;
+        return Pattern.compile("(?:" + String.join(")|(?:", parts) + ")");
+    }
+
+    /**
+     * Checks if the filter rejects nothing, the walker can then skip building relative paths
+     *
+     * @return Returns TRUE if there are neither include nor exclude patterns, otherwise FALSE
+     */
+    public boolean isEmpty() {
+        return includes == null && excludes == null;
+    }
+
+    /**
+     * Checks if a file should be searched
+     *
+     * @param relativePath Path to the file relative to the searched directory, separated by '/'
+     * @return Returns TRUE if the file is included and not excluded, otherwise FALSE
+     */
+    public boolean acceptsFile(String relativePath) {
+        if(excludes != null && excludes.matcher(relativePath).find())
+            return false;
+        return includes == null || includes.matcher(relativePath).find();
+    }
+
+    /**
+     * Checks if a directory should be entered, include patterns only apply to files
+     *
+     * @param relativePath Path to the directory relative to the searched directory, separated by '/'
+     * @return Returns TRUE if the directory is not excluded, otherwise FALSE
+     */
+    public boolean acceptsDirectory(String relativePath) {
+        return excludes == null || !excludes.matcher(relativePath).find();
+    }
+}
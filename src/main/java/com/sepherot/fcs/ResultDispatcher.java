@@ -0,0 +1,52 @@
+package com.sepherot.fcs;
+
+import java.util.function.Consumer;
+
+/**
+ * Passes the results of every inspected file to a handler and stops the search once enough files matched
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+class ResultDispatcher {
+    private final Consumer<FileResults> handler;
+    private final int maxCount;
+    private int matchedFiles;
+    private volatile boolean stopped;
+
+    /**
+     * Create new dispatcher
+     *
+     * @param handler Receives the results of every file with at least one match
+     * @param maxCount Stop after this number of files with matches (0 = no limit)
+     */
+    ResultDispatcher(Consumer<FileResults> handler, int maxCount) {
+        this.handler = handler;
+        this.maxCount = maxCount;
+    }
+
+    /**
+     * Pass results of a file to the handler, can be called from multiple threads
+     *
+     * @param results Results of the inspected file
+     */
+    synchronized void dispatch(FileResults results) {
+        if(stopped || results.isEmpty())
+            return;
+
+        handler.accept(results);
+        matchedFiles++;
+        if(maxCount > 0 && matchedFiles >= maxCount)
+            stopped = true;
+    }
+
+    /**
+     * Check if the search can be stopped
+     *
+     * @return Returns TRUE if enough files matched, otherwise FALSE
+     */
+    boolean isStopped() {
+        return stopped;
+    }
+}
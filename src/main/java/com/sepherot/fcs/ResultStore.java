@@ -0,0 +1,191 @@
+package com.sepherot.fcs;
+
+import com.sepherot.fcs.data.SearchResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Compact store for the results of a whole search
+ *
+ * Paths and terms are interned and referenced by their id, the line numbers of every term in every file are kept in
+ * a primitive array. A hit costs the four bytes of its line number instead of a {@link SearchResult} with a boxed
+ * line number, which only is created on demand by {@link #toSearchResults()}.
+ *
+ * The store is not thread safe, results of concurrent inspections have to be added one after the other.
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public final class ResultStore {
+    private final Map<String, Integer> fileIds = new HashMap<>();
+    private final List<String> files = new ArrayList<>();
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+
+    /**
+     * Line numbers by file id and term id, see {@link FileResults#getLines(int)}
+     */
+    private final List<int[][]> lines = new ArrayList<>();
+    private long matches;
+
+    /**
+     * Add the results of a file, files without any match are not stored
+     *
+     * A file added again gets the lines of both results.
+     *
+     * @param results Results of a file
+     */
+    public void add(FileResults results) {
+        if(results.isEmpty())
+            return;
+
+        int file = intern(fileIds, files, results.getPath());
+        if(file == lines.size())
+            lines.add(new int[results.getTerms().size()][]);
+
+        for(int t = 0; t < results.getTerms().size(); t++) {
+            int[] found = results.getLines(t);
+            if(found == null)
+                continue;
+
+            int term = intern(termIds, terms, results.getTerms().get(t));
+            int[][] byTerm = lines.get(file);
+            if(term >= byTerm.length) {
+                byTerm = Arrays.copyOf(byTerm, terms.size());
+                lines.set(file, byTerm);
+            }
+
+            byTerm[term] = byTerm[term] == null ? found : merge(byTerm[term], found);
+        }
+        matches += results.getMatchCount();
+    }
+
+    /**
+     * Return the id of a value, assigns the next id to new values
+     *
+     * @param ids Ids by value
+     * @param values Values by id
+     * @param value Value to intern
+     * @return Id of the value
+     */
+    private static int intern(Map<String, Integer> ids, List<String> values, String value) {
+        Integer id = ids.get(value);
+        if(id == null) {
+            id = values.size();
+            ids.put(value, id);
+            values.add(value);
+        }
+        return id;
+    }
+
+    /**
+     * Merge two ascending arrays of line numbers
+     *
+     * @param first Line numbers
+     * @param second Line numbers
+     * @return Distinct line numbers of both in ascending order
+     */
+    private static int[] merge(int[] first, int[] second) {
+        return IntStream.concat(Arrays.stream(first), Arrays.stream(second)).sorted().distinct().toArray();
+    }
+
+    /**
+     * Return the ids of values sorted by value
+     *
+     * @param values Values by id
+     * @param filter Ids to include
+     * @return Ids of the included values sorted by value
+     */
+    static int[] sortedIds(List<String> values, IntPredicate filter) {
+        return IntStream.range(0, values.size())
+                .filter(filter)
+                .boxed()
+                .sorted((a, b) -> values.get(a).compareTo(values.get(b)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Return the ids of all files sorted by path
+     *
+     * @return File ids
+     */
+    public int[] sortedFiles() {
+        return sortedIds(files, f -> true);
+    }
+
+    /**
+     * Return the ids of all found terms sorted by term
+     *
+     * @return Term ids
+     */
+    public int[] sortedTerms() {
+        return sortedIds(terms, t -> true);
+    }
+
+    /**
+     * Return the lines a term was found in
+     *
+     * @param file Id of the file
+     * @param term Id of the term
+     * @return Line numbers in ascending order, NULL if the file doesn't contain the term, empty if lines were not
+     *         tracked
+     */
+    public int[] getLines(int file, int term) {
+        int[][] byTerm = lines.get(file);
+        return term < byTerm.length ? byTerm[term] : null;
+    }
+
+    /**
+     * Create search results for all stored matches
+     *
+     * @return One result per line, a result without line number for terms found without tracking lines
+     */
+    public List<SearchResult> toSearchResults() {
+        List<SearchResult> results = new ArrayList<>();
+        for(int f = 0; f < files.size(); f++) {
+            for(int t = 0; t < terms.size(); t++) {
+                int[] found = getLines(f, t);
+                if(found == null)
+                    continue;
+                if(found.length == 0)
+                    results.add(new SearchResult(files.get(f), terms.get(t), null));
+                for(int line: found)
+                    results.add(new SearchResult(files.get(f), terms.get(t), line));
+            }
+        }
+        return results;
+    }
+
+    public String getFile(int file) {
+        return files.get(file);
+    }
+
+    public int getFileCount() {
+        return files.size();
+    }
+
+    public String getTerm(int term) {
+        return terms.get(term);
+    }
+
+    public int getTermCount() {
+        return terms.size();
+    }
+
+    /**
+     * Return the number of matches, see {@link FileResults#getMatchCount()}
+     *
+     * @return Number of matches of all files
+     */
+    public long getMatchCount() {
+        return matches;
+    }
+}
@@ -0,0 +1,221 @@
+package com.sepherot.fcs;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative metrics of all searches of the process, registered as MBean so JConsole or any JMX client can read them
+ *
+ * All searches with metrics enabled share the instance returned by {@link #register()}. Counters only grow, tools
+ * watching them derive rates from the difference between two reads. The latency percentiles are calculated from the
+ * most recent searches only, so they follow changes of the load.
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public class SearchMetrics implements SearchMetricsMBean {
+    /**
+     * Name the metrics are registered with
+     */
+    public static final String OBJECT_NAME = "com.sepherot.fcs:type=SearchMetrics";
+
+    /**
+     * Number of recent searches the latency percentiles are calculated from
+     */
+    protected static final int LATENCY_WINDOW = 1024;
+
+    private static SearchMetrics instance;
+
+    private final LongAdder searches = new LongAdder();
+    private final AtomicInteger activeSearches = new AtomicInteger();
+    private final LongAdder filesScanned = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+
+    /**
+     * Queues of the running parallel searches
+     */
+    private final Set<Collection<?>> queues = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Durations of the recent searches in nanoseconds, used as ring buffer
+     */
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount;
+    private int latencyNext;
+
+    private volatile ContentCache cache;
+
+    /**
+     * Create new metrics, not registered with JMX
+     */
+    public SearchMetrics() {
+    }
+
+    /**
+     * Return the metrics of the process, registers them with the platform MBean server on the first call
+     *
+     * @return Shared metrics
+     * @throws IllegalStateException Registering the MBean failed
+     */
+    public static synchronized SearchMetrics register() {
+        if(instance != null)
+            return instance;
+
+        SearchMetrics metrics = new SearchMetrics();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered by another class loader, e.g. a second copy of the library, keep counting locally
+        } catch (JMException e) {
+            throw new IllegalStateException("Registering the JMX metrics failed", e);
+        }
+        instance = metrics;
+        return instance;
+    }
+
+    /**
+     * Mark the start of a search
+     */
+    public void searchStarted() {
+        activeSearches.incrementAndGet();
+    }
+
+    /**
+     * Record a finished search
+     *
+     * @param time Duration of the search in nanoseconds
+     * @param files Number of searched files
+     * @param bytes Number of bytes read from disk
+     */
+    public void searchFinished(long time, long files, long bytes) {
+        activeSearches.decrementAndGet();
+        searches.increment();
+        filesScanned.add(files);
+        bytesRead.add(bytes);
+
+        synchronized(latencies) {
+            latencies[latencyNext] = time;
+            latencyNext = (latencyNext + 1) % latencies.length;
+            latencyCount = Math.min(latencyCount + 1, latencies.length);
+        }
+    }
+
+    /**
+     * Include the queue of a running search in the queue depth
+     *
+     * @param queue Queue of files waiting for inspection
+     */
+    public void addQueue(Collection<?> queue) {
+        queues.add(queue);
+    }
+
+    /**
+     * Remove the queue of a finished search
+     *
+     * @param queue Queue of files waiting for inspection
+     */
+    public void removeQueue(Collection<?> queue) {
+        queues.remove(queue);
+    }
+
+    /**
+     * Return a percentile of the recent search durations
+     *
+     * @param percentile Percentile between 0 and 100
+     * @return Duration in milliseconds, 0 if there were no searches yet
+     */
+    private double latency(double percentile) {
+        long[] sorted;
+        synchronized(latencies) {
+            sorted = Arrays.copyOf(latencies, latencyCount);
+        }
+        if(sorted.length == 0)
+            return 0;
+
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    @Override
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    @Override
+    public int getActiveSearches() {
+        return activeSearches.get();
+    }
+
+    @Override
+    public long getFilesScanned() {
+        return filesScanned.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getCacheHits() {
+        ContentCache c = cache;
+        return c == null ? 0 : c.getHits();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        ContentCache c = cache;
+        return c == null ? 0 : c.getMisses();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        int depth = 0;
+        for(Collection<?> queue: queues)
+            depth += queue.size();
+        return depth;
+    }
+
+    @Override
+    public double getLatencyP50Millis() {
+        return latency(50);
+    }
+
+    @Override
+    public double getLatencyP90Millis() {
+        return latency(90);
+    }
+
+    @Override
+    public double getLatencyP99Millis() {
+        return latency(99);
+    }
+
+    @Override
+    public double getLatencyMaxMillis() {
+        return latency(100);
+    }
+
+    public ContentCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Set the cache whose hits and misses are exposed
+     *
+     * @param cache Content cache shared by the searches, may be NULL
+     */
+    public void setCache(ContentCache cache) {
+        this.cache = cache;
+    }
+}
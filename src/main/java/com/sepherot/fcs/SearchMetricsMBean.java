@@ -0,0 +1,87 @@
+package com.sepherot.fcs;
+
+/**
+ * Management interface of {@link SearchMetrics}, exposed over JMX
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public interface SearchMetricsMBean {
+    /**
+     * Return the number of finished searches
+     *
+     * @return Number of searches since the start of the process
+     */
+    long getSearches();
+
+    /**
+     * Return the number of searches currently running
+     *
+     * @return Number of running searches
+     */
+    int getActiveSearches();
+
+    /**
+     * Return the number of searched files
+     *
+     * @return Number of files since the start of the process
+     */
+    long getFilesScanned();
+
+    /**
+     * Return the number of bytes read from disk, including files loaded into the cache, cache hits are not counted
+     *
+     * @return Number of bytes since the start of the process
+     */
+    long getBytesRead();
+
+    /**
+     * Return the number of files served from the content cache
+     *
+     * @return Number of hits, 0 if no cache is used
+     */
+    long getCacheHits();
+
+    /**
+     * Return the number of files not found in the content cache
+     *
+     * @return Number of misses, 0 if no cache is used
+     */
+    long getCacheMisses();
+
+    /**
+     * Return the number of files waiting for inspection in all running parallel searches
+     *
+     * @return Number of queued files
+     */
+    int getQueueDepth();
+
+    /**
+     * Return the median duration of the recent searches
+     *
+     * @return Duration in milliseconds, 0 if there were no searches yet
+     */
+    double getLatencyP50Millis();
+
+    /**
+     * Return the 90th percentile of the duration of the recent searches
+     *
+     * @return Duration in milliseconds, 0 if there were no searches yet
+     */
+    double getLatencyP90Millis();
+
+    /**
+     * Return the 99th percentile of the duration of the recent searches
+     *
+     * @return Duration in milliseconds, 0 if there were no searches yet
+     */
+    double getLatencyP99Millis();
+
+    /**
+     * Return the longest duration of the recent searches
+     *
+     * @return Duration in milliseconds, 0 if there were no searches yet
+     */
+    double getLatencyMaxMillis();
+}
@@ -0,0 +1,538 @@
+package com.sepherot.fcs;
+
+import com.sepherot.fcs.data.SearchConfiguration;
+import org.apache.commons.cli.ParseException;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long running search server, answers searches sent by the {@link Client} over a local socket
+ *
+ * The server keeps a {@link LiveIndex} for each of the recently searched directories, which is filled by the first
+ * search and kept up to date by an {@link IndexWatcher}. The least recently searched directories are dropped once more
+ * than {@link #getMaxIndices()} directories were searched. Later searches neither walk the directory nor read files
+ * which can't contain the terms, and run on a warm JVM. The content of the searched files can be kept in a {@link ContentCache}.
+ *
+ * Only clients which can read the token file of the server are answered. The file is readable by the owner only and
+ * deleted when the server is closed.
+ *
+ * Protocol, one search per connection:
+ * <pre>
+ * request:  token, working directory of the client, number of arguments, arguments (modified UTF-8, see DataOutput)
+ * response: status byte (0 = success, 1 = error), followed by the UTF-8 encoded output until the socket is closed
+ * streamed: status byte 2, frames of UTF-8 encoded output (length as int, bytes), a frame of length 0, then the final
+ *           status byte and a message (modified UTF-8)
+ * </pre>
+ *
+ * The status of a search is only sent once it is known. Streamed results are sent while searching, a search failing
+ * after results were sent is reported in the trailer after the last frame.
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public class SearchServer implements Closeable {
+    /**
+     * Port used if none is configured
+     */
+    public static final int DEFAULT_PORT = 4711;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_ERROR = 1;
+    public static final byte STATUS_STREAM = 2;
+
+    /**
+     * Maximum number of arguments of a search
+     */
+    protected static final int MAX_ARGUMENTS = 1024;
+
+    private final ServerSocket socket;
+    private final Path tokenFile;
+    private final String token;
+    private final ContentCache cache;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /**
+     * Metrics all searches are reported to, NULL if not exposed
+     */
+    private SearchMetrics metrics;
+
+    /**
+     * Maximum number of directories with an index if not configured otherwise
+     */
+    public static final int DEFAULT_MAX_INDICES = 16;
+
+    /**
+     * Index of a directory, completed once the directory was read and is watched
+     */
+    private static final class IndexEntry {
+        private final CompletableFuture<LiveIndex> index = new CompletableFuture<>();
+        private IndexWatcher watcher;
+    }
+
+    /**
+     * Indices of the recently searched directories, by directory and the options of the walker which change the
+     * indexed files, least recently used first. Only accessed while holding the lock of the map.
+     */
+    private final Map<String, IndexEntry> indices = new LinkedHashMap<>(16, 0.75f, true);
+    private int maxIndices = DEFAULT_MAX_INDICES;
+
+    /**
+     * Create new server listening on the loopback interface only
+     *
+     * @param port Port to listen on, 0 to choose a free port
+     * @param cache Cache for the content of the searched files shared by all searches, NULL to always read the files
+     * @param tokenFile File the token clients have to send is written to, NULL for the default of the port
+     * @throws IOException Opening the socket or writing the token failed
+     */
+    public SearchServer(int port, ContentCache cache, Path tokenFile) throws IOException {
+        this.socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.cache = cache;
+        this.tokenFile = tokenFile != null ? tokenFile : tokenFile(socket.getLocalPort());
+        this.token = createToken();
+        try {
+            writeToken(this.tokenFile, token);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Create new server listening on the loopback interface only
+     *
+     * @param port Port to listen on, 0 to choose a free port
+     * @param cache Cache for the content of the searched files shared by all searches, NULL to always read the files
+     * @throws IOException Opening the socket or writing the token failed
+     */
+    public SearchServer(int port, ContentCache cache) throws IOException {
+        this(port, cache, null);
+    }
+
+    /**
+     * Create new server listening on the loopback interface only, without caching the content of files
+     *
+     * @param port Port to listen on, 0 to choose a free port
+     * @throws IOException Opening the socket or writing the token failed
+     */
+    public SearchServer(int port) throws IOException {
+        this(port, null);
+    }
+
+    /**
+     * Return the default token file of a server
+     *
+     * @param port Port of the server
+     * @return Path to the token file in the home directory of the user
+     */
+    public static Path tokenFile(int port) {
+        return Paths.get(System.getProperty("user.home"), ".fcs-server-" + port + ".token");
+    }
+
+    /**
+     * Create a random token
+     *
+     * @return Token as hexadecimal string
+     */
+    private static String createToken() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder token = new StringBuilder();
+        for(byte b: bytes)
+            token.append(String.format("%02x", b));
+        return token.toString();
+    }
+
+    /**
+     * Write the token to a file only the owner can read
+     *
+     * @param file Token file, replaced if it exists
+     * @param token Token of the server
+     * @throws IOException Writing the file failed
+     */
+    private static void writeToken(Path file, String token) throws IOException {
+        Files.deleteIfExists(file);
+        if(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"))
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        else
+            Files.createFile(file);
+        Files.write(file, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Accept searches until the server is closed, every search is answered on its own thread
+     *
+     * @throws IOException Accepting connections failed
+     */
+    public void run() throws IOException {
+        try {
+            while(!socket.isClosed()) {
+                Socket connection = socket.accept();
+                executor.execute(() -> handle(connection));
+            }
+        } catch (SocketException e) {
+            if(!socket.isClosed())
+                throw e;
+        }
+    }
+
+    /**
+     * Read a search from the connection and write its results back
+     *
+     * @param connection Connection to the client
+     */
+    private void handle(Socket connection) {
+        try(Socket c = connection) {
+            DataInputStream in = new DataInputStream(c.getInputStream());
+            OutputStream out = c.getOutputStream();
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+            // Read the whole request before answering, closing with unread input would reset the connection
+            byte[] received = in.readUTF().getBytes(StandardCharsets.UTF_8);
+            String workingDirectory = in.readUTF();
+            int count = in.readInt();
+            if(count < 0 || count > MAX_ARGUMENTS) {
+                out.write(STATUS_ERROR);
+                writer.write("Number of arguments must be between 0 and " + MAX_ARGUMENTS + ": " + count);
+                writer.flush();
+                return;
+            }
+            String[] args = new String[count];
+            for(int i = 0; i < args.length; i++)
+                args[i] = in.readUTF();
+
+            if(!MessageDigest.isEqual(received, token.getBytes(StandardCharsets.UTF_8))) {
+                out.write(STATUS_ERROR);
+                writer.write("Invalid token, read it from " + tokenFile);
+                writer.flush();
+                return;
+            }
+
+            try {
+                FileContentSearch fcs = createSearch(workingDirectory, args);
+                if(fcs.getConfig().isStream()) {
+                    stream(fcs, out);
+                    return;
+                }
+                String result = fcs.search() + fcs.formatStats();
+                out.write(STATUS_OK);
+                writer.write(result);
+            } catch (ParseException | IOException | IllegalArgumentException | IllegalStateException e) {
+                out.write(STATUS_ERROR);
+                writer.write(e.getMessage());
+            }
+            writer.flush();
+        } catch (IOException e) {
+            // Client closed the connection
+        }
+    }
+
+    /**
+     * Run a streamed search, the output is sent in frames followed by the final status
+     *
+     * @param fcs Search to run
+     * @param out Output stream of the connection
+     * @throws IOException Sending to the client failed
+     */
+    private static void stream(FileContentSearch fcs, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeByte(STATUS_STREAM);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FrameOutputStream(data), StandardCharsets.UTF_8));
+
+        byte status = STATUS_OK;
+        String message = "";
+        try {
+            fcs.search(writer);
+            writer.write(fcs.formatStats());
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            status = STATUS_ERROR;
+            message = String.valueOf(e.getMessage());
+        }
+        writer.flush();
+
+        data.writeInt(0);
+        data.writeByte(status);
+        data.writeUTF(message);
+        data.flush();
+    }
+
+    /**
+     * Sends every write as a frame prefixed with its length
+     */
+    private static final class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out;
+
+        FrameOutputStream(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            // A frame of length 0 ends the output
+            if(len == 0)
+                return;
+            out.writeInt(len);
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+    /**
+     * Create search for the arguments of a client, using the index of the searched directory
+     *
+     * @param workingDirectory Working directory of the client, relative directories are resolved against it
+     * @param args Commandline arguments of the client
+     * @return Search ready to start
+     * @throws ParseException Arguments are invalid
+     * @throws IOException Watching the directory failed
+     */
+    protected FileContentSearch createSearch(String workingDirectory, String[] args) throws ParseException, IOException {
+        // Checked after parsing, the parser also accepts abbreviations like --hel
+        SearchConfiguration config = CmdParser.parse(args);
+        if(config.isHelp())
+            throw new IllegalArgumentException("Option --help is not supported by the server");
+        if(config.isServer())
+            throw new IllegalArgumentException("Option --server is not supported by the server");
+        if(config.getIndexCommand() != null)
+            throw new IllegalArgumentException("Index commands are not supported by the server");
+
+        Path root = Paths.get(workingDirectory).resolve(config.getRootDirectory()).normalize();
+        config.setRootDirectory(root.toString());
+        config.setUseIndex(true);
+
+        FileContentSearch fcs = new FileContentSearch(config);
+        fcs.setIndex(index(config));
+        fcs.setCache(cache);
+        if(metrics != null)
+            fcs.setMetrics(metrics);
+        return fcs;
+    }
+
+    /**
+     * Return the index of the searched directory, the first search of a directory reads and watches it
+     *
+     * Extensions and path filters are applied to the candidates of the index, so they don't need an index of their
+     * own. Only options changing which files can be found at all lead to a separate index.
+     *
+     * @param config Configuration of the search
+     * @return Index of the directory
+     * @throws IOException Watching the directory failed
+     */
+    private LiveIndex index(SearchConfiguration config) throws IOException {
+        String key = config.getRootDirectory() + "|" + config.isFollowLinks() + "|" + config.isRespectIgnoreFiles();
+        IndexEntry entry;
+        boolean build = false;
+        synchronized(indices) {
+            entry = indices.get(key);
+            if(entry == null) {
+                entry = new IndexEntry();
+                indices.put(key, entry);
+                build = true;
+                evictIndices();
+            }
+        }
+
+        // Read the directory without holding the lock, searches of other directories continue meanwhile
+        if(build)
+            buildIndex(key, entry, config);
+
+        try {
+            return entry.index.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Waiting for the index of " + config.getRootDirectory() + " was interrupted", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Read and watch a directory, searches waiting for the index are released once it is complete or failed
+     *
+     * @param key Key of the index
+     * @param entry Entry receiving the index
+     * @param config Configuration of the search
+     */
+    private void buildIndex(String key, IndexEntry entry, SearchConfiguration config) {
+        IndexWatcher watcher = null;
+        try {
+            DirWalker walker = new DirWalker();
+            walker.setFollowLinks(config.isFollowLinks());
+            walker.setRespectIgnoreFiles(config.isRespectIgnoreFiles());
+            walker.setParallelism(config.getWalkerThreads());
+            LiveIndex index = new LiveIndex(Paths.get(config.getRootDirectory()), walker);
+            index.rescan();
+
+            watcher = new IndexWatcher(index, null);
+            try {
+                watcher.start();
+            } catch (IOException e) {
+                throw new IOException("Watching " + config.getRootDirectory() + " failed", e);
+            }
+
+            boolean evicted;
+            synchronized(indices) {
+                entry.watcher = watcher;
+                evicted = indices.get(key) != entry;
+            }
+            // Evicted or server closed while reading, the index is still returned to the waiting searches
+            if(evicted)
+                watcher.close();
+            entry.index.complete(index);
+        } catch (IOException | RuntimeException e) {
+            synchronized(indices) {
+                indices.remove(key, entry);
+            }
+            closeQuietly(watcher);
+            entry.index.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Drop the least recently used indices above the limit and stop watching their directories
+     *
+     * Searches still using a dropped index finish with its current state. Must be called while holding the lock of
+     * the indices.
+     */
+    private void evictIndices() {
+        Iterator<IndexEntry> entries = indices.values().iterator();
+        while(indices.size() > maxIndices && entries.hasNext()) {
+            IndexEntry entry = entries.next();
+            entries.remove();
+            closeQuietly(entry.watcher);
+        }
+    }
+
+    /**
+     * Stop watching a directory
+     *
+     * @param watcher Watcher to close, may be NULL
+     */
+    private static void closeQuietly(IndexWatcher watcher) {
+        if(watcher == null)
+            return;
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            // Watch service is dropped anyway
+        }
+    }
+
+    /**
+     * Return port the server listens on
+     *
+     * @return Local port
+     */
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    public Path getTokenFile() {
+        return tokenFile;
+    }
+
+    public ContentCache getCache() {
+        return cache;
+    }
+
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getMaxIndices() {
+        return maxIndices;
+    }
+
+    /**
+     * Set the maximum number of directories with an index, the least recently searched are dropped first
+     *
+     * @param maxIndices Maximum number of indices, at least 1
+     */
+    public void setMaxIndices(int maxIndices) {
+        if(maxIndices < 1)
+            throw new IllegalArgumentException("Maximum number of indices must be at least 1: " + maxIndices);
+        synchronized(indices) {
+            this.maxIndices = maxIndices;
+            evictIndices();
+        }
+    }
+
+    /**
+     * Return the number of directories with an index
+     *
+     * @return Number of indices, including those still being read
+     */
+    public int getIndexCount() {
+        synchronized(indices) {
+            return indices.size();
+        }
+    }
+
+    /**
+     * Report all searches to the metrics, including the hits and misses of the cache of the server
+     *
+     * @param metrics Metrics to report to, NULL to not report
+     */
+    public void setMetrics(SearchMetrics metrics) {
+        this.metrics = metrics;
+        if(metrics != null)
+            metrics.setCache(cache);
+    }
+
+    /**
+     * Stop accepting searches and watching directories, deletes the token file
+     *
+     * @throws IOException Closing the socket failed
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        Files.deleteIfExists(tokenFile);
+        executor.shutdown();
+        synchronized(indices) {
+            for(IndexEntry entry: indices.values())
+                closeQuietly(entry.watcher);
+            indices.clear();
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.sepherot.fcs;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects counters and timings of a search
+ *
+ * All counters can be updated from any thread without locking. Searches without statistics don't create an instance
+ * at all, every instrumented place only checks for NULL then.
+ *
+ * Walking, reading, matching and formatting overlap when files are searched while the walk is still running, and
+ * they may run on several threads. The time of a phase is therefore the time summed over all threads, while the
+ * wall time is the time from the start to the end of the search. The search time of every file is also recorded in
+ * a latency histogram per file size bucket.
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public class SearchStats {
+    /**
+     * Phases of a search
+     */
+    public enum Phase {
+        /**
+         * Finding the files to search, by walking through the directories or from the index
+         */
+        WALK,
+
+        /**
+         * Reading files from disk or the cache
+         */
+        READ,
+
+        /**
+         * Matching the content against the terms
+         */
+        MATCH,
+
+        /**
+         * Formatting the results
+         */
+        FORMAT
+    }
+
+    /**
+     * Measures consecutive steps of phases on a single thread
+     */
+    public final class Stopwatch {
+        private long start;
+        private long cpuStart;
+
+        private Stopwatch() {
+        }
+
+        /**
+         * Start measuring a step
+         */
+        public void start() {
+            start = System.nanoTime();
+            cpuStart = cpuTime();
+        }
+
+        /**
+         * Stop measuring and add the step to a phase
+         *
+         * @param phase Phase of the step
+         */
+        public void stop(Phase phase) {
+            addPhase(phase, System.nanoTime() - start, cpuTime() - cpuStart);
+        }
+    }
+
+    /**
+     * Upper bounds of the file size buckets in bytes, the last bucket holds all larger files
+     */
+    private static final long[] SIZE_BUCKETS = {1024, 16 * 1024, 256 * 1024, 4 * 1024 * 1024};
+
+    /**
+     * Upper bounds of the latency buckets in nanoseconds, the last bucket holds all slower files
+     */
+    private static final long[] LATENCY_BUCKETS = {10000, 100000, 1000000, 10000000, 100000000, 1000000000};
+
+    private static final String[] LATENCY_LABELS = {"10us", "100us", "1ms", "10ms", "100ms", "1s", "slower"};
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+    private final LongAdder directoriesVisited = new LongAdder();
+    private final LongAdder filesVisited = new LongAdder();
+    private final LongAdder filesSkipped = new LongAdder();
+    private final LongAdder filesSearched = new LongAdder();
+    private final LongAdder binaryFilesSkipped = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesScanned = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder wallTime = new LongAdder();
+
+    private final LongAdder[] phaseTime = adders(Phase.values().length);
+    private final LongAdder[] phaseCpuTime = adders(Phase.values().length);
+
+    private final LongAdder[] bucketFiles = adders(SIZE_BUCKETS.length + 1);
+    private final LongAdder[] bucketTime = adders(SIZE_BUCKETS.length + 1);
+    private final LongAdder[][] bucketLatencies = new LongAdder[SIZE_BUCKETS.length + 1][];
+
+    /**
+     * Create new statistics with all counters at zero
+     */
+    public SearchStats() {
+        for(int i = 0; i < bucketLatencies.length; i++)
+            bucketLatencies[i] = adders(LATENCY_BUCKETS.length + 1);
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for(int i = 0; i < count; i++)
+            adders[i] = new LongAdder();
+        return adders;
+    }
+
+    /**
+     * Return the CPU time of the current thread, used to measure phases together with {@link System#nanoTime()}
+     *
+     * @return CPU time in nanoseconds, 0 if not supported by the JVM
+     */
+    public static long cpuTime() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * Create stopwatch adding to these statistics, has to be used by a single thread only
+     *
+     * @return New stopwatch
+     */
+    public Stopwatch stopwatch() {
+        return new Stopwatch();
+    }
+
+    /**
+     * Add the time of one step of a phase
+     *
+     * @param phase Phase of the step
+     * @param time Elapsed time in nanoseconds
+     * @param cpuTime CPU time of the thread in nanoseconds
+     */
+    public void addPhase(Phase phase, long time, long cpuTime) {
+        phaseTime[phase.ordinal()].add(time);
+        phaseCpuTime[phase.ordinal()].add(cpuTime);
+    }
+
+    /**
+     * Record the search of a single file
+     *
+     * @param size Size of the file in bytes
+     * @param time Time needed to search the file in nanoseconds
+     */
+    public void addFile(long size, long time) {
+        int bucket = bucket(SIZE_BUCKETS, size);
+        filesSearched.increment();
+        bucketFiles[bucket].increment();
+        bucketTime[bucket].add(time);
+        bucketLatencies[bucket][bucket(LATENCY_BUCKETS, time)].increment();
+    }
+
+    private static int bucket(long[] bounds, long value) {
+        int i = 0;
+        while(i < bounds.length && value > bounds[i])
+            i++;
+        return i;
+    }
+
+    public void addDirectoryVisited() {
+        directoriesVisited.increment();
+    }
+
+    public void addFileVisited() {
+        filesVisited.increment();
+    }
+
+    public void addFileSkipped() {
+        filesSkipped.increment();
+    }
+
+    public void addBinaryFileSkipped() {
+        binaryFilesSkipped.increment();
+    }
+
+    public void addBytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    public void addBytesScanned(long bytes) {
+        bytesScanned.add(bytes);
+    }
+
+    public void addMatches(long count) {
+        matches.add(count);
+    }
+
+    public void addWallTime(long time) {
+        wallTime.add(time);
+    }
+
+    /**
+     * Return the number of bytes scanned per second of wall time
+     *
+     * @return Throughput, 0 if no time was recorded
+     */
+    public double getBytesScannedPerSecond() {
+        long time = wallTime.sum();
+        return time == 0 ? 0 : bytesScanned.sum() * 1e9 / time;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * Return a label for a size bucket
+     *
+     * @param bucket Index of the bucket
+     * @return Label like "<= 16 KiB"
+     */
+    private static String sizeLabel(int bucket) {
+        if(bucket == SIZE_BUCKETS.length)
+            return String.format("> %d KiB", SIZE_BUCKETS[bucket - 1] / 1024);
+        return String.format("<= %d KiB", SIZE_BUCKETS[bucket] / 1024);
+    }
+
+    /**
+     * Format the statistics for humans
+     *
+     * @return Statistics as multiline text
+     */
+    public String format() {
+        StringBuilder str = new StringBuilder();
+        str.append(String.format(Locale.ROOT, "%nStatistics:%n"));
+        str.append(String.format(Locale.ROOT, "  Wall time:    %.3f ms%n", millis(wallTime.sum())));
+        str.append(String.format(Locale.ROOT, "  Directories:  %d visited%n", directoriesVisited.sum()));
+        str.append(String.format(Locale.ROOT, "  Files:        %d visited, %d skipped, %d searched, %d binary skipped%n",
+                filesVisited.sum(), filesSkipped.sum(), filesSearched.sum(), binaryFilesSkipped.sum()));
+        str.append(String.format(Locale.ROOT, "  Bytes:        %d read, %d scanned, %.1f MiB/s%n",
+                bytesRead.sum(), bytesScanned.sum(), getBytesScannedPerSecond() / 1024 / 1024));
+        str.append(String.format(Locale.ROOT, "  Matches:      %d%n", matches.sum()));
+
+        str.append(String.format(Locale.ROOT, "  Phases (summed over all threads):%n"));
+        for(Phase phase: Phase.values()) {
+            str.append(String.format(Locale.ROOT, "    %-8s %10.3f ms, CPU %10.3f ms%n", phase.name().toLowerCase(),
+                    millis(phaseTime[phase.ordinal()].sum()), millis(phaseCpuTime[phase.ordinal()].sum())));
+        }
+
+        str.append(String.format(Locale.ROOT, "  Files by size:%n"));
+        for(int b = 0; b < bucketFiles.length; b++) {
+            long files = bucketFiles[b].sum();
+            if(files == 0)
+                continue;
+
+            StringBuilder latencies = new StringBuilder();
+            for(int l = 0; l < LATENCY_LABELS.length; l++) {
+                long count = bucketLatencies[b][l].sum();
+                if(count == 0)
+                    continue;
+                if(latencies.length() > 0)
+                    latencies.append(", ");
+                latencies.append(l < LATENCY_BUCKETS.length ? "<= " : "").append(LATENCY_LABELS[l]).append(": ").append(count);
+            }
+            str.append(String.format(Locale.ROOT, "    %-12s %8d files, %.3f ms average [%s]%n", sizeLabel(b), files,
+                    millis(bucketTime[b].sum()) / files, latencies));
+        }
+
+        return str.toString();
+    }
+
+    /**
+     * Format the statistics as JSON, times in nanoseconds
+     *
+     * @return Statistics as JSON object
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"wallTimeNanos\":").append(wallTime.sum());
+        json.append(",\"directoriesVisited\":").append(directoriesVisited.sum());
+        json.append(",\"filesVisited\":").append(filesVisited.sum());
+        json.append(",\"filesSkipped\":").append(filesSkipped.sum());
+        json.append(",\"filesSearched\":").append(filesSearched.sum());
+        json.append(",\"binaryFilesSkipped\":").append(binaryFilesSkipped.sum());
+        json.append(",\"bytesRead\":").append(bytesRead.sum());
+        json.append(",\"bytesScanned\":").append(bytesScanned.sum());
+        json.append(",\"bytesScannedPerSecond\":").append(Math.round(getBytesScannedPerSecond()));
+        json.append(",\"matches\":").append(matches.sum());
+
+        json.append(",\"phases\":{");
+        for(Phase phase: Phase.values()) {
+            if(phase.ordinal() > 0)
+                json.append(',');
+            json.append('"').append(phase.name().toLowerCase()).append("\":{\"timeNanos\":")
+                    .append(phaseTime[phase.ordinal()].sum()).append(",\"cpuTimeNanos\":")
+                    .append(phaseCpuTime[phase.ordinal()].sum()).append('}');
+        }
+
+        json.append("},\"sizeBuckets\":[");
+        for(int b = 0; b < bucketFiles.length; b++) {
+            if(b > 0)
+                json.append(',');
+            json.append("{\"maxSize\":").append(b < SIZE_BUCKETS.length ? String.valueOf(SIZE_BUCKETS[b]) : "null")
+                    .append(",\"files\":").append(bucketFiles[b].sum())
+                    .append(",\"timeNanos\":").append(bucketTime[b].sum())
+                    .append(",\"latencies\":{");
+            for(int l = 0; l < LATENCY_LABELS.length; l++) {
+                if(l > 0)
+                    json.append(',');
+                json.append('"').append(LATENCY_LABELS[l]).append("\":").append(bucketLatencies[b][l].sum());
+            }
+            json.append("}}");
+        }
+        json.append("]}");
+
+        return json.toString();
+    }
+
+    public long getDirectoriesVisited() {
+        return directoriesVisited.sum();
+    }
+
+    public long getFilesVisited() {
+        return filesVisited.sum();
+    }
+
+    public long getFilesSkipped() {
+        return filesSkipped.sum();
+    }
+
+    public long getFilesSearched() {
+        return filesSearched.sum();
+    }
+
+    public long getBinaryFilesSkipped() {
+        return binaryFilesSkipped.sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getBytesScanned() {
+        return bytesScanned.sum();
+    }
+
+    public long getMatches() {
+        return matches.sum();
+    }
+
+    public long getWallTime() {
+        return wallTime.sum();
+    }
+
+    /**
+     * Return the time of a phase summed over all threads
+     *
+     * @param phase Phase
+     * @return Time in nanoseconds
+     */
+    public long getPhaseTime(Phase phase) {
+        return phaseTime[phase.ordinal()].sum();
+    }
+
+    /**
+     * Return the CPU time of a phase summed over all threads
+     *
+     * @param phase Phase
+     * @return CPU time in nanoseconds, 0 if not supported by the JVM
+     */
+    public long getPhaseCpuTime(Phase phase) {
+        return phaseCpuTime[phase.ordinal()].sum();
+    }
+}
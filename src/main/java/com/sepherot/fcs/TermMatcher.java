@@ -0,0 +1,395 @@
+package com.sepherot.fcs;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Precompiled multi-pattern matcher (Aho-Corasick) which finds all search terms in a single pass over the content
+ *
+ * The automaton is built once for all terms and stored as a dense transition table over the bytes used in the
+ * terms. The terms are encoded with the default charset, the same charset files are read with, so the raw bytes of a
+ * file can be scanned without decoding them. Scanning costs one table lookup per byte, no matter how many terms are
+ * searched.
+ *
+ * Case insensitive searches fold ASCII letters in the table. If a term contains other letters with an uppercase form,
+ * whose bytes can't be folded this way, the content is decoded and lowercased chunk by chunk before scanning it.
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public class TermMatcher {
+    /**
+     * Receives the matches found while scanning content
+     */
+    public interface MatchListener {
+        /**
+         * Called for every match in the content
+         *
+         * @param term Index of the term which was found
+         * @param line Number of the line in which the match starts
+         * @return Returns TRUE to continue scanning, FALSE to stop
+         */
+        boolean onMatch(int term, int line);
+    }
+
+    private static final byte LINE_SEPARATOR = '\n';
+
+    /**
+     * Maximum number of different first bytes of the terms for which the word wise skipping is used
+     */
+    private static final int MAX_SKIP_BYTES = 4;
+
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long ONES = 0x0101010101010101L;
+
+    private final List<String> terms;
+    private final boolean caseSensitive;
+    private final Charset charset;
+
+    /**
+     * Content is decoded and lowercased before scanning, because a term contains letters not folded in the table
+     */
+    private final boolean foldContent;
+
+    /**
+     * Maps every byte to its column in the transition table, bytes not used in any term map to 0. For case
+     * insensitive searches both cases of an ASCII letter share the same column.
+     */
+    private final int[] byteClasses = new int[256];
+    private final int width;
+
+    /**
+     * Transition table, next state = transitions[state * width + byteClass]
+     */
+    private final int[] transitions;
+
+    /**
+     * Indices of all terms which end in the given state
+     */
+    private final int[][] outputs;
+
+    /**
+     * Number of line separators in each term, needed to calculate the line a match starts in
+     */
+    private final int[] lineBreaks;
+
+    /**
+     * All bytes a term can start with, each repeated in all eight bytes of a long, or NULL if there are too many
+     * of them to skip ahead word wise
+     */
+    private final long[] skipPatterns;
+
+    /**
+     * Create new matcher for the given terms
+     *
+     * @param terms Terms to search for, empty terms never match
+     * @param caseSensitive Search is case sensitive
+     */
+    public TermMatcher(List<String> terms, boolean caseSensitive) {
+        this.caseSensitive = caseSensitive;
+        this.charset = Charset.defaultCharset();
+
+        List<String> prepared = new ArrayList<>();
+        for(String term: terms)
+            prepared.add(caseSensitive ? term : term.toLowerCase());
+        this.terms = Collections.unmodifiableList(prepared);
+
+        // Encode the terms
+        List<byte[]> patterns = new ArrayList<>();
+        List<Integer> patternTerms = new ArrayList<>();
+        lineBreaks = new int[prepared.size()];
+        boolean fold = false;
+        for(int t = 0; t < prepared.size(); t++) {
+            String term = prepared.get(t);
+            if(term.isEmpty())
+                continue;
+
+            patterns.add(term.getBytes(charset));
+            patternTerms.add(t);
+            fold |= !caseSensitive && needsDecodedFolding(term);
+            for(int i = 0; i < term.length(); i++) {
+                if(term.charAt(i) == LINE_SEPARATOR)
+                    lineBreaks[t]++;
+            }
+        }
+
+        // Assign a column to every byte used in the terms
+        int classes = 1;
+        for(byte[] pattern: patterns) {
+            for(byte b: pattern) {
+                if(byteClasses[b & 0xFF] == 0)
+                    byteClasses[b & 0xFF] = classes++;
+            }
+        }
+        width = classes;
+
+        // Fold the case of ASCII letters into the table instead of lowercasing the scanned content
+        if(!caseSensitive) {
+            for(int b = 'A'; b <= 'Z'; b++)
+                byteClasses[b] = byteClasses[b + ('a' - 'A')];
+        }
+
+        // Build trie of all patterns
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        trie.add(new int[width]);
+        ends.add(new ArrayList<>());
+        for(int p = 0; p < patterns.size(); p++) {
+            int state = 0;
+            for(byte b: patterns.get(p)) {
+                int c = byteClasses[b & 0xFF];
+                if(trie.get(state)[c] == 0) {
+                    trie.get(state)[c] = trie.size();
+                    trie.add(new int[width]);
+                    ends.add(new ArrayList<>());
+                }
+                state = trie.get(state)[c];
+            }
+            if(!ends.get(state).contains(patternTerms.get(p)))
+                ends.get(state).add(patternTerms.get(p));
+        }
+
+        // Resolve failure links breadth first and turn the trie into a complete transition table
+        int states = trie.size();
+        transitions = new int[states * width];
+        outputs = new int[states][];
+        int[] fail = new int[states];
+        Queue<Integer> queue = new LinkedList<>();
+
+        outputs[0] = new int[0];
+        for(int c = 0; c < width; c++) {
+            int next = trie.get(0)[c];
+            transitions[c] = next;
+            if(next != 0)
+                queue.add(next);
+        }
+        while(!queue.isEmpty()) {
+            int state = queue.poll();
+
+            List<Integer> out = ends.get(state);
+            int[] inherited = outputs[fail[state]];
+            int[] merged = new int[out.size() + inherited.length];
+            for(int i = 0; i < out.size(); i++)
+                merged[i] = out.get(i);
+            System.arraycopy(inherited, 0, merged, out.size(), inherited.length);
+            outputs[state] = merged;
+
+            for(int c = 0; c < width; c++) {
+                int next = trie.get(state)[c];
+                if(next != 0) {
+                    fail[next] = transitions[fail[state] * width + c];
+                    transitions[state * width + c] = next;
+                    queue.add(next);
+                }
+                else {
+                    transitions[state * width + c] = transitions[fail[state] * width + c];
+                }
+            }
+        }
+
+        skipPatterns = createSkipPatterns();
+        foldContent = fold;
+    }
+
+    /**
+     * Collect all bytes which leave the start state of the automaton
+     *
+     * @return Every byte repeated eight times, NULL if there are too many bytes
+     */
+    private long[] createSkipPatterns() {
+        List<Long> starts = new ArrayList<>();
+        for(int b = 0; b < 256; b++) {
+            if(transitions[byteClasses[b]] != 0)
+                starts.add((b & 0xFFL) * ONES);
+        }
+        if(starts.size() > MAX_SKIP_BYTES)
+            return null;
+
+        long[] patterns = new long[starts.size()];
+        for(int i = 0; i < patterns.length; i++)
+            patterns[i] = starts.get(i);
+        return patterns;
+    }
+
+    /**
+     * Mark all bytes of the word which are equal to the byte repeated in the pattern
+     *
+     * @param word Eight bytes of content
+     * @param pattern Byte to look for, repeated eight times
+     * @return Word with the highest bit set exactly in every matching byte
+     */
+    private static long matchingBytes(long word, long pattern) {
+        long x = word ^ pattern;
+        return ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+    }
+
+    /**
+     * Check if a lowercased term contains letters which can't be folded in the transition table
+     *
+     * @param term Lowercased term
+     * @return Returns TRUE if a non ASCII character has another case, otherwise FALSE
+     */
+    private static boolean needsDecodedFolding(String term) {
+        for(int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if(c >= 0x80 && (Character.toUpperCase(c) != c || Character.isSurrogate(c)))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Scan the content for all terms
+     *
+     * @param content Content to scan
+     * @param listener Receives all matches in the order of their end position
+     */
+    public void scan(String content, MatchListener listener) {
+        newCursor().scan(ByteBuffer.wrap(content.getBytes(charset)), listener);
+    }
+
+    /**
+     * Create cursor to scan content which is split into multiple chunks
+     *
+     * @return New cursor positioned at the start of the content
+     */
+    public Cursor newCursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Keeps the state of a scan between chunks of the same content, so matches spanning two chunks are found as well
+     */
+    public final class Cursor {
+        private int state;
+        private int line = 1;
+
+        /**
+         * Decodes the content if it has to be lowercased, NULL otherwise
+         */
+        private final CharsetDecoder decoder;
+
+        /**
+         * Bytes at the end of the previous chunk which don't form a complete character yet
+         */
+        private byte[] carry = new byte[0];
+
+        private Cursor() {
+            decoder = foldContent
+                    ? charset.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                    : null;
+        }
+
+        /**
+         * Scan the next chunk of the content
+         *
+         * @param chunk Next part of the content, the bytes between position and limit are scanned
+         * @param listener Receives all matches in the order of their end position
+         * @return Returns FALSE if the listener stopped the scan, otherwise TRUE
+         */
+        public boolean scan(ByteBuffer chunk, MatchListener listener) {
+            return scanBytes(decoder == null ? chunk : fold(chunk), listener);
+        }
+
+        /**
+         * Decode and lowercase a chunk, a character split between two chunks is completed with the next chunk
+         *
+         * @param chunk Next part of the content, the bytes between position and limit are folded
+         * @return Lowercased content encoded with the charset of the matcher
+         */
+        private ByteBuffer fold(ByteBuffer chunk) {
+            ByteBuffer in = ByteBuffer.allocate(carry.length + chunk.remaining());
+            in.put(carry).put(chunk.duplicate());
+            in.flip();
+
+            CharBuffer chars = CharBuffer.allocate((int) (in.remaining() * (double) decoder.maxCharsPerByte()) + 1);
+            decoder.decode(in, chars, false);
+            carry = new byte[in.remaining()];
+            in.get(carry);
+            chars.flip();
+
+            return ByteBuffer.wrap(chars.toString().toLowerCase().getBytes(charset));
+        }
+
+        /**
+         * Scan bytes prepared for the transition table
+         *
+         * @param chunk Content to scan, the bytes between position and limit are scanned
+         * @param listener Receives all matches in the order of their end position
+         * @return Returns FALSE if the listener stopped the scan, otherwise TRUE
+         */
+        private boolean scanBytes(ByteBuffer chunk, MatchListener listener) {
+            int limit = chunk.limit();
+            int i = chunk.position();
+
+            while(i < limit) {
+                // Nothing can match until a term starts, so jump over words without a first byte of any term
+                if(state == 0 && skipPatterns != null) {
+                    i = skip(chunk, i, limit);
+                    if(i >= limit)
+                        break;
+                }
+
+                byte b = chunk.get(i++);
+                if(b == LINE_SEPARATOR)
+                    line++;
+
+                state = transitions[state * width + byteClasses[b & 0xFF]];
+                for(int term: outputs[state]) {
+                    if(!listener.onMatch(term, line - lineBreaks[term]))
+                        return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Skip eight bytes at a time as long as none of them can start a term, line separators are counted on the way
+         *
+         * @param chunk Content to scan
+         * @param from Position to start at
+         * @param limit End of the content
+         * @return Position of the first word containing a candidate, or of the remaining bytes shorter than a word
+         */
+        private int skip(ByteBuffer chunk, int from, int limit) {
+            int i = from;
+            while(i + Long.BYTES <= limit) {
+                long word = chunk.getLong(i);
+
+                long candidates = 0;
+                for(long pattern: skipPatterns)
+                    candidates |= matchingBytes(word, pattern);
+                if(candidates != 0)
+                    return i;
+
+                line += Long.bitCount(matchingBytes(word, LINE_SEPARATOR * ONES));
+                i += Long.BYTES;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * Return the terms of the matcher, lowercased if the matcher is not case sensitive
+     *
+     * @return List with prepared terms, the position of a term is the index used for matches
+     */
+    public List<String> getTerms() {
+        return terms;
+    }
+
+    public boolean isCaseSensitive() {
+        return caseSensitive;
+    }
+}
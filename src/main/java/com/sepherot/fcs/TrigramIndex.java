@@ -0,0 +1,610 @@
+package com.sepherot.fcs;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent inverted index which maps every trigram (three consecutive bytes) to the files containing it
+ *
+ * A term can only be in a file which contains all trigrams of the term, so a search only has to verify the files
+ * in the intersection of the posting lists. ASCII letters are folded to lowercase, the same index serves case
+ * sensitive and insensitive searches. Binary files are listed without trigrams and are always candidates if binary
+ * files are searched.
+ *
+ * The index is stored in a single file in the indexed directory and memory mapped for queries, only the posting
+ * lists of the trigrams of the terms are read. The size and modification time of every file are stored to update the
+ * index by reading only the files which changed since. Queries use them as well, files changed since the index was
+ * written are always candidates, because their trigrams are outdated. Layout of the file:
+ * <pre>
+ * header:   magic, version, number of files, number of trigrams, length of postings (int each)
+ * files:    path offset, path length, flags (int each), size, last modified (long each) per file
+ * trigrams: trigram, postings offset, number of postings (int each) per trigram, sorted by trigram
+ * postings: ids of the files as varint encoded gaps
+ * paths:    UTF-8 encoded paths relative to the indexed directory, separated by '/'
+ * </pre>
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public class TrigramIndex implements FileIndex {
+    /**
+     * Name of the index file, stored in the indexed directory
+     */
+    public static final String INDEX_FILE = ".fcs-index";
+
+    private static final int MAGIC = 0x46435349;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+    private static final int FILE_ENTRY_SIZE = 3 * Integer.BYTES + 2 * Long.BYTES;
+    private static final int TRIGRAM_ENTRY_SIZE = 3 * Integer.BYTES;
+
+    static final int FLAG_BINARY = 1;
+
+    /**
+     * Metadata of an indexed file
+     */
+    static final class FileEntry {
+        private final String path;
+        private final long size;
+        private final long modified;
+        private int flags;
+
+        FileEntry(String path, long size, long modified) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        FileEntry(String path, long size, long modified, int flags) {
+            this(path, size, modified);
+            this.flags = flags;
+        }
+    }
+
+    private final Path root;
+    private final ByteBuffer data;
+    private final int fileCount;
+    private final int trigramCount;
+    private final int filesStart;
+    private final int trigramsStart;
+    private final int postingsStart;
+    private final int pathsStart;
+
+    private TrigramIndex(Path root, ByteBuffer data) throws IOException {
+        this.root = root;
+        this.data = data;
+
+        if(data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC)
+            throw new IOException("Not an index file: " + root.resolve(INDEX_FILE));
+        if(data.getInt(4) != VERSION)
+            throw new IOException("Unsupported index version " + data.getInt(4) + ", rebuild the index");
+
+        fileCount = data.getInt(8);
+        trigramCount = data.getInt(12);
+        filesStart = HEADER_SIZE;
+        trigramsStart = filesStart + fileCount * FILE_ENTRY_SIZE;
+        postingsStart = trigramsStart + trigramCount * TRIGRAM_ENTRY_SIZE;
+        pathsStart = postingsStart + data.getInt(16);
+    }
+
+    /**
+     * Open the index stored in the given directory
+     *
+     * @param root Indexed directory
+     * @return Opened index
+     * @throws IOException Index is missing or damaged
+     */
+    public static TrigramIndex open(Path root) throws IOException {
+        try(FileChannel channel = FileChannel.open(root.resolve(INDEX_FILE), StandardOpenOption.READ)) {
+            return new TrigramIndex(root, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Read the index stored in the given directory into the heap
+     *
+     * Unlike {@link #open(Path)} no mapping of the file is kept open, so the file can be replaced while the index is
+     * in use. Windows refuses to replace a file which is still mapped.
+     *
+     * @param root Indexed directory
+     * @return Index read completely
+     * @throws IOException Index is missing or damaged
+     */
+    private static TrigramIndex read(Path root) throws IOException {
+        return new TrigramIndex(root, ByteBuffer.wrap(Files.readAllBytes(root.resolve(INDEX_FILE))));
+    }
+
+    /**
+     * Index all files the walker finds in the given directory and store the index in the directory
+     *
+     * @param root Directory to index
+     * @param walker Walker selecting the files to index
+     * @return Number of indexed files
+     * @throws IOException Writing the index failed
+     */
+    public static int build(Path root, DirWalker walker) throws IOException {
+        return index(root, walker, null);
+    }
+
+    /**
+     * Update the index stored in the given directory, only new files and files with a different size or modification
+     * time are read again. Files which no longer exist are removed. Builds a new index if there is none yet.
+     *
+     * @param root Indexed directory
+     * @param walker Walker selecting the files to index
+     * @return Number of files read while updating
+     * @throws IOException Writing the index failed
+     */
+    public static int update(Path root, DirWalker walker) throws IOException {
+        TrigramIndex previous = null;
+        try {
+            // Not mapped, the file is replaced by the new index at the end
+            previous = read(root);
+        } catch (IOException e) {
+            // Missing or outdated index, index every file
+        }
+        return index(root, walker, previous);
+    }
+
+    /**
+     * Index the files the walker finds, reusing the trigrams of unchanged files from the previous index
+     *
+     * Unchanged files keep the order they had in the previous index and are numbered first, the files read again
+     * follow. Mapping the ids of the previous index is therefore ascending and the posting lists stay sorted.
+     *
+     * @param root Directory to index
+     * @param walker Walker selecting the files to index
+     * @param previous Previous index of the directory, may be NULL
+     * @return Number of files read
+     * @throws IOException Writing the index failed
+     */
+    private static int index(Path root, DirWalker walker, TrigramIndex previous) throws IOException {
+        Path indexFile = root.resolve(INDEX_FILE);
+        // The walker may list directories in parallel
+        List<FileEntry> found = Collections.synchronizedList(new ArrayList<>());
+        walker.walk(root.toString(), file -> {
+            Path path = Paths.get(file);
+            if(path.equals(indexFile))
+                return true;
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                found.add(new FileEntry(relativize(root, path), attrs.size(), attrs.lastModifiedTime().toMillis()));
+            } catch (IOException e) {
+                // Files deleted while walking are not indexed
+            }
+            return true;
+        });
+
+        // Separate unchanged files from the files which have to be read
+        Map<String, Integer> previousIds = new HashMap<>();
+        for(int id = 0; previous != null && id < previous.fileCount; id++)
+            previousIds.put(previous.path(id), id);
+
+        FileEntry[] unchanged = new FileEntry[previous == null ? 0 : previous.fileCount];
+        List<FileEntry> changed = new ArrayList<>();
+        for(FileEntry entry: found) {
+            Integer id = previousIds.get(entry.path);
+            if(id != null && previous.fileSize(id) == entry.size && previous.fileModified(id) == entry.modified) {
+                entry.flags = previous.fileFlags(id);
+                unchanged[id] = entry;
+            }
+            else
+                changed.add(entry);
+        }
+
+        List<FileEntry> files = new ArrayList<>();
+        int[] newIds = new int[unchanged.length];
+        for(int id = 0; id < unchanged.length; id++) {
+            newIds[id] = unchanged[id] == null ? -1 : files.size();
+            if(unchanged[id] != null)
+                files.add(unchanged[id]);
+        }
+
+        Map<Integer, IntList> postings = previous == null ? new HashMap<>() : previous.remapPostings(newIds);
+        Tokenizer tokenizer = new Tokenizer();
+        for(FileEntry entry: changed) {
+            int id = files.size();
+            files.add(entry);
+
+            IntList trigrams = tokenizer.tokenize(root.resolve(entry.path));
+            if(trigrams == null) {
+                entry.flags |= FLAG_BINARY;
+                continue;
+            }
+            for(int i = 0; i < trigrams.size(); i++)
+                postings.computeIfAbsent(trigrams.get(i), k -> new IntList()).add(id);
+        }
+
+        write(root, files, postings);
+        return changed.size();
+    }
+
+    /**
+     * Read all posting lists and replace the ids of the files
+     *
+     * @param newIds New id of every file, -1 to remove the file
+     * @return Posting lists with the new ids, lists without any file are dropped
+     */
+    private Map<Integer, IntList> remapPostings(int[] newIds) {
+        Map<Integer, IntList> postings = new HashMap<>();
+        for(int i = 0; i < trigramCount; i++) {
+            int entry = trigramsStart + i * TRIGRAM_ENTRY_SIZE;
+            int[] ids = decodePostings(postingsStart + data.getInt(entry + 4), data.getInt(entry + 8));
+
+            IntList mapped = new IntList(ids.length);
+            for(int id: ids) {
+                if(newIds[id] != -1)
+                    mapped.add(newIds[id]);
+            }
+            if(!mapped.isEmpty())
+                postings.put(data.getInt(entry), mapped);
+        }
+        return postings;
+    }
+
+    /**
+     * Convert path into the form stored in the index
+     *
+     * @param root Indexed directory
+     * @param file Path to file below the directory
+     * @return Relative path separated by '/'
+     */
+    static String relativize(Path root, Path file) {
+        return root.relativize(file).toString().replace('\\', '/');
+    }
+
+    /**
+     * Write the index file, replaces an existing index only after the new one is complete
+     *
+     * @param root Indexed directory
+     * @param files Indexed files, the position is the id of the file
+     * @param postings Ids of the files containing each trigram, ascending
+     * @throws IOException Writing the index failed
+     */
+    static void write(Path root, List<FileEntry> files, Map<Integer, IntList> postings) throws IOException {
+        int[] trigrams = new int[postings.size()];
+        int t = 0;
+        for(int trigram: postings.keySet())
+            trigrams[t++] = trigram;
+        Arrays.sort(trigrams);
+
+        ByteArrayOutputStream postingBytes = new ByteArrayOutputStream();
+        int[] postingOffsets = new int[trigrams.length];
+        for(int i = 0; i < trigrams.length; i++) {
+            postingOffsets[i] = postingBytes.size();
+            IntList ids = postings.get(trigrams[i]);
+            int previous = 0;
+            for(int j = 0; j < ids.size(); j++) {
+                writeVarInt(postingBytes, ids.get(j) - previous);
+                previous = ids.get(j);
+            }
+        }
+
+        Path tempFile = Files.createTempFile(root, INDEX_FILE, ".tmp");
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(files.size());
+            out.writeInt(trigrams.length);
+            out.writeInt(postingBytes.size());
+
+            List<byte[]> paths = new ArrayList<>();
+            int pathOffset = 0;
+            for(FileEntry file: files) {
+                byte[] path = file.path.getBytes(StandardCharsets.UTF_8);
+                paths.add(path);
+                out.writeInt(pathOffset);
+                out.writeInt(path.length);
+                out.writeInt(file.flags);
+                out.writeLong(file.size);
+                out.writeLong(file.modified);
+                pathOffset += path.length;
+            }
+            for(int i = 0; i < trigrams.length; i++) {
+                out.writeInt(trigrams[i]);
+                out.writeInt(postingOffsets[i]);
+                out.writeInt(postings.get(trigrams[i]).size());
+            }
+            postingBytes.writeTo(out);
+            for(byte[] path: paths)
+                out.write(path);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+
+        Files.move(tempFile, root.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Write a non negative int with seven bits per byte, the highest bit marks that more bytes follow
+     *
+     * @param out Stream to write to
+     * @param value Value to write
+     */
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Fold ASCII letters to lowercase, other bytes are kept
+     *
+     * @param b Byte to fold
+     * @return Folded byte as unsigned value
+     */
+    private static int fold(byte b) {
+        int c = b & 0xFF;
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+    /**
+     * Collects the distinct trigrams of a file
+     */
+    static final class Tokenizer {
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(FileInspector.CHUNK_SIZE);
+
+        /**
+         * Trigrams already collected for the current file, one bit per possible trigram
+         */
+        private final long[] seen = new long[(1 << 24) / Long.SIZE];
+        private final IntList trigrams = new IntList(1024);
+
+        /**
+         * Read the file in chunks and collect its trigrams
+         *
+         * @param file Path to file
+         * @return Distinct trigrams of the file, NULL if the file is binary. The list is reused for the next file.
+         */
+        IntList tokenize(Path file) {
+            for(int i = 0; i < trigrams.size(); i++)
+                seen[trigrams.get(i) >>> 6] = 0;
+            trigrams.clear();
+
+            buffer.clear();
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                boolean firstChunk = true;
+                int window = 0;
+                long length = 0;
+
+                while(channel.read(buffer) != -1) {
+                    buffer.flip();
+                    if(firstChunk && FileInspector.isBinary(buffer))
+                        return null;
+                    firstChunk = false;
+
+                    for(int i = buffer.position(); i < buffer.limit(); i++) {
+                        window = ((window << 8) | fold(buffer.get(i))) & 0xFFFFFF;
+                        if(++length >= 3 && (seen[window >>> 6] & (1L << window)) == 0) {
+                            seen[window >>> 6] |= 1L << window;
+                            trigrams.add(window);
+                        }
+                    }
+                    buffer.clear();
+                }
+            } catch (IOException e) {
+                // Unreadable files are indexed like empty files
+            }
+            return trigrams;
+        }
+    }
+
+    /**
+     * Collect the trigrams of a term which can be looked up in the index
+     *
+     * For case insensitive searches only trigrams made of ASCII characters are used, because other letters are not
+     * folded in the index.
+     *
+     * @param term Encoded term
+     * @param caseSensitive Search is case sensitive
+     * @return Distinct trigrams in ascending order, empty if the term is too short
+     */
+    static int[] termTrigrams(byte[] term, boolean caseSensitive) {
+        IntList trigrams = new IntList();
+        for(int i = 0; i + 3 <= term.length; i++) {
+            if(!caseSensitive && (term[i] < 0 || term[i + 1] < 0 || term[i + 2] < 0))
+                continue;
+            trigrams.add((fold(term[i]) << 16) | (fold(term[i + 1]) << 8) | fold(term[i + 2]));
+        }
+        return Arrays.stream(trigrams.toArray()).sorted().distinct().toArray();
+    }
+
+    /**
+     * Find all files which may contain at least one of the terms
+     *
+     * Terms without trigrams can't be looked up, then all files are candidates. Files whose size or modification time
+     * changed since the index was written are candidates as well, new files are only found after updating the index.
+     *
+     * @param terms Terms to search for, lowercased if the search is not case sensitive
+     * @param caseSensitive Search is case sensitive
+     * @param binaryFiles Binary files are searched and have to be included
+     * @return Paths of the candidate files in the order they were indexed, resolved against the indexed directory
+     */
+    @Override
+    public List<String> candidates(List<String> terms, boolean caseSensitive, boolean binaryFiles) {
+        boolean[] selected = new boolean[fileCount];
+        Charset charset = Charset.defaultCharset();
+
+        for(String term: terms) {
+            int[] ids = lookup(term.getBytes(charset), caseSensitive);
+            if(ids == null) {
+                Arrays.fill(selected, true);
+                break;
+            }
+            for(int id: ids)
+                selected[id] = true;
+        }
+
+        List<String> files = new ArrayList<>();
+        for(int id = 0; id < fileCount; id++) {
+            boolean binary = (fileFlags(id) & FLAG_BINARY) != 0;
+            Path file = root.resolve(path(id));
+            if((binary ? binaryFiles : selected[id]) || isChanged(id, file))
+                files.add(file.toString());
+        }
+        return files;
+    }
+
+    /**
+     * Checks if a file changed since it was indexed
+     *
+     * @param id Id of the file
+     * @param file Path to file
+     * @return Returns TRUE if size or modification time differ from the index, FALSE if they match or the file is gone
+     */
+    private boolean isChanged(int id, Path file) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return attrs.size() != fileSize(id) || attrs.lastModifiedTime().toMillis() != fileModified(id);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Intersect the posting lists of all trigrams of a term
+     *
+     * @param term Encoded term
+     * @param caseSensitive Search is case sensitive
+     * @return Ascending ids of the files containing all trigrams, NULL if the term has no usable trigram
+     */
+    private int[] lookup(byte[] term, boolean caseSensitive) {
+        int[] result = null;
+
+        for(int trigram: termTrigrams(term, caseSensitive)) {
+            int[] ids = postings(trigram);
+            result = result == null ? ids : intersect(result, ids);
+            if(result.length == 0)
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Read the posting list of a trigram
+     *
+     * @param trigram Trigram to look up
+     * @return Ascending ids of the files containing the trigram
+     */
+    private int[] postings(int trigram) {
+        int low = 0;
+        int high = trigramCount - 1;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = trigramsStart + mid * TRIGRAM_ENTRY_SIZE;
+            int key = data.getInt(entry);
+            if(key < trigram)
+                low = mid + 1;
+            else if(key > trigram)
+                high = mid - 1;
+            else
+                return decodePostings(postingsStart + data.getInt(entry + 4), data.getInt(entry + 8));
+        }
+        return new int[0];
+    }
+
+    /**
+     * Decode varint encoded gaps into file ids
+     *
+     * @param offset Absolute position of the first byte
+     * @param count Number of ids
+     * @return Ascending ids
+     */
+    private int[] decodePostings(int offset, int count) {
+        int[] ids = new int[count];
+        int position = offset;
+        int previous = 0;
+        for(int i = 0; i < count; i++) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data.get(position++);
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while(b < 0);
+            previous += value;
+            ids[i] = previous;
+        }
+        return ids;
+    }
+
+    /**
+     * Intersect two ascending lists of ids
+     *
+     * @param a First list
+     * @param b Second list
+     * @return Ascending ids contained in both lists
+     */
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while(i < a.length && j < b.length) {
+            if(a[i] < b[j])
+                i++;
+            else if(a[i] > b[j])
+                j++;
+            else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Return the path of a file as stored in the index
+     *
+     * @param id Id of the file
+     * @return Path relative to the indexed directory
+     */
+    private String path(int id) {
+        int entry = filesStart + id * FILE_ENTRY_SIZE;
+        byte[] path = new byte[data.getInt(entry + 4)];
+        for(int i = 0; i < path.length; i++)
+            path[i] = data.get(pathsStart + data.getInt(entry) + i);
+        return new String(path, StandardCharsets.UTF_8);
+    }
+
+    private int fileFlags(int id) {
+        return data.getInt(filesStart + id * FILE_ENTRY_SIZE + 8);
+    }
+
+    private long fileSize(int id) {
+        return data.getLong(filesStart + id * FILE_ENTRY_SIZE + 12);
+    }
+
+    private long fileModified(int id) {
+        return data.getLong(filesStart + id * FILE_ENTRY_SIZE + 20);
+    }
+
+    @Override
+    public int getFileCount() {
+        return fileCount;
+    }
+}
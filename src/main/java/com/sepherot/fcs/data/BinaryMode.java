@@ -0,0 +1,25 @@
+package com.sepherot.fcs.data;
+
+/**
+ * Defines how files detected as binary are searched
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public enum BinaryMode {
+    /**
+     * Don't search binary files at all
+     */
+    SKIP,
+
+    /**
+     * Search binary files like text files
+     */
+    TEXT,
+
+    /**
+     * Search binary files, but only report that a term was found without line numbers
+     */
+    MATCH_ONLY
+}
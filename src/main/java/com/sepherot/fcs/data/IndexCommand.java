@@ -0,0 +1,25 @@
+package com.sepherot.fcs.data;
+
+/**
+ * Commands to maintain the index of a directory
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public enum IndexCommand {
+    /**
+     * Index all files of the directory, replaces an existing index
+     */
+    BUILD,
+
+    /**
+     * Read only new and changed files again and remove deleted files from the index
+     */
+    UPDATE,
+
+    /**
+     * Keep the index up to date with the changes in the directory until the process is stopped
+     */
+    WATCH
+}
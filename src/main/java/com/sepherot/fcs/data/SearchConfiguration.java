@@ -1,6 +1,7 @@
 package com.sepherot.fcs.data;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -18,6 +19,27 @@ public final class SearchConfiguration implements Serializable {
     private boolean caseSensitive;
     private boolean longPaths;
     private boolean recursive;
+    private int threads = 1;
+    private boolean stream;
+    private int maxCount;
+    private boolean followLinks;
+    private int walkerThreads = 1;
+    private BinaryMode binaryMode = BinaryMode.SKIP;
+    private boolean respectIgnoreFiles = true;
+    private List<String> includes = new ArrayList<>();
+    private List<String> excludes = new ArrayList<>();
+    private List<String> includeRegexes = new ArrayList<>();
+    private List<String> excludeRegexes = new ArrayList<>();
+    private boolean useIndex;
+    private IndexCommand indexCommand;
+    private boolean server;
+    private int port = 4711;
+    private long cacheSize = 256L * 1024 * 1024;
+    private boolean cacheOffHeap;
+    private boolean stats;
+    private boolean statsJson;
+    private boolean jmx;
+    private boolean help;
 
     /**
      * Create new configuration
@@ -114,4 +136,172 @@ public final class SearchConfiguration implements Serializable {
     public void setRecursive(boolean recursive) {
         this.recursive = recursive;
     }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public boolean isStream() {
+        return stream;
+    }
+
+    public void setStream(boolean stream) {
+        this.stream = stream;
+    }
+
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    public void setMaxCount(int maxCount) {
+        this.maxCount = maxCount;
+    }
+
+    public boolean isFollowLinks() {
+        return followLinks;
+    }
+
+    public void setFollowLinks(boolean followLinks) {
+        this.followLinks = followLinks;
+    }
+
+    public int getWalkerThreads() {
+        return walkerThreads;
+    }
+
+    public void setWalkerThreads(int walkerThreads) {
+        this.walkerThreads = walkerThreads;
+    }
+
+    public BinaryMode getBinaryMode() {
+        return binaryMode;
+    }
+
+    public void setBinaryMode(BinaryMode binaryMode) {
+        this.binaryMode = binaryMode;
+    }
+
+    public boolean isRespectIgnoreFiles() {
+        return respectIgnoreFiles;
+    }
+
+    public void setRespectIgnoreFiles(boolean respectIgnoreFiles) {
+        this.respectIgnoreFiles = respectIgnoreFiles;
+    }
+
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    public void setIncludes(List<String> includes) {
+        this.includes = includes;
+    }
+
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    public void setExcludes(List<String> excludes) {
+        this.excludes = excludes;
+    }
+
+    public List<String> getIncludeRegexes() {
+        return includeRegexes;
+    }
+
+    public void setIncludeRegexes(List<String> includeRegexes) {
+        this.includeRegexes = includeRegexes;
+    }
+
+    public List<String> getExcludeRegexes() {
+        return excludeRegexes;
+    }
+
+    public void setExcludeRegexes(List<String> excludeRegexes) {
+        this.excludeRegexes = excludeRegexes;
+    }
+
+    public boolean isUseIndex() {
+        return useIndex;
+    }
+
+    public void setUseIndex(boolean useIndex) {
+        this.useIndex = useIndex;
+    }
+
+    public IndexCommand getIndexCommand() {
+        return indexCommand;
+    }
+
+    public void setIndexCommand(IndexCommand indexCommand) {
+        this.indexCommand = indexCommand;
+    }
+
+    public boolean isServer() {
+        return server;
+    }
+
+    public void setServer(boolean server) {
+        this.server = server;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setCacheSize(long cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    public boolean isCacheOffHeap() {
+        return cacheOffHeap;
+    }
+
+    public void setCacheOffHeap(boolean cacheOffHeap) {
+        this.cacheOffHeap = cacheOffHeap;
+    }
+
+    public boolean isStats() {
+        return stats;
+    }
+
+    public void setStats(boolean stats) {
+        this.stats = stats;
+    }
+
+    public boolean isStatsJson() {
+        return statsJson;
+    }
+
+    public void setStatsJson(boolean statsJson) {
+        this.statsJson = statsJson;
+    }
+
+    public boolean isJmx() {
+        return jmx;
+    }
+
+    public void setJmx(boolean jmx) {
+        this.jmx = jmx;
+    }
+
+    public boolean isHelp() {
+        return help;
+    }
+
+    public void setHelp(boolean help) {
+        this.help = help;
+    }
 }
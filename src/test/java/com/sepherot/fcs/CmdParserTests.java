@@ -2,11 +2,15 @@ package com.sepherot.fcs;
 
 import static org.junit.Assert.*;
 
+import com.sepherot.fcs.data.BinaryMode;
+import com.sepherot.fcs.data.IndexCommand;
 import com.sepherot.fcs.data.SearchConfiguration;
 import org.apache.commons.cli.ParseException;
 import org.junit.Test;
 
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
 
 public class CmdParserTests {
     @Test
@@ -331,4 +335,386 @@ public class CmdParserTests {
             fail();
         }
     }
+
+    @Test
+    public void parse_notSetThreads_setToOne() {
+        // Arrange
+        String[] args = {"Egon Olsen"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertEquals(1, result.getThreads());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_threads_longForm_returnValue() {
+        // Arrange
+        String[] args = {"Egon Olsen", "--threads", "4"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertEquals(4, result.getThreads());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_threads_zero_setToProcessors() {
+        // Arrange
+        String[] args = {"Egon Olsen", "-t", "0"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertEquals(Runtime.getRuntime().availableProcessors(), result.getThreads());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_threads_notANumber_throwException() throws ParseException {
+        // Arrange
+        String[] args = {"Egon Olsen", "-t", "many"};
+
+        // Act
+        CmdParser.parse(args);
+    }
+
+    @Test
+    public void parse_stream_longForm_setToTrue() {
+        // Arrange
+        String[] args = {"Egon Olsen", "--stream"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertTrue(result.isStream());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_notSetMaxCount_setToZero() {
+        // Arrange
+        String[] args = {"Egon Olsen"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertEquals(0, result.getMaxCount());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_maxCount_shortForm_returnValue() {
+        // Arrange
+        String[] args = {"Egon Olsen", "-m", "3"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertEquals(3, result.getMaxCount());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_firstMatch_setMaxCountToOne() {
+        // Arrange
+        String[] args = {"Egon Olsen", "--first-match"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertEquals(1, result.getMaxCount());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_followLinks_shortForm_setToTrue() {
+        // Arrange
+        String[] args = {"Egon Olsen", "-fl"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertTrue(result.isFollowLinks());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_walkerThreads_longForm_returnValue() {
+        // Arrange
+        String[] args = {"Egon Olsen", "--walker-threads", "8"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertEquals(8, result.getWalkerThreads());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_notSetBinary_setToSkip() {
+        // Arrange
+        String[] args = {"Egon Olsen"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertEquals(BinaryMode.SKIP, result.getBinaryMode());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_binary_longForm_returnValue() {
+        // Arrange
+        String[] args = {"Egon Olsen", "--binary", "match-only"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertEquals(BinaryMode.MATCH_ONLY, result.getBinaryMode());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_binary_unknownValue_throwException() throws ParseException {
+        // Arrange
+        String[] args = {"Egon Olsen", "-b", "maybe"};
+
+        // Act
+        CmdParser.parse(args);
+    }
+
+    @Test
+    public void parse_noIgnore_setRespectIgnoreFilesToFalse() {
+        // Arrange
+        String[] args = {"Egon Olsen", "--no-ignore"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertFalse(result.isRespectIgnoreFiles());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_noIgnoreMissing_respectIgnoreFiles() {
+        // Arrange
+        String[] args = {"Egon Olsen"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertTrue(result.isRespectIgnoreFiles());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_includeExcludeRepeated_returnAllValues() {
+        // Arrange
+        String[] args = {"Egon Olsen", "--include", "*.java", "--include", "*.md", "--exclude-regex", "^target/"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertEquals(Arrays.asList("*.java", "*.md"), result.getIncludes());
+            assertTrue(result.getExcludes().isEmpty());
+            assertEquals(Collections.singletonList("^target/"), result.getExcludeRegexes());
+            assertEquals(Collections.singletonList("Egon Olsen"), result.getSearchTerms());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_invalidRegex_throwException() throws ParseException {
+        // Arrange
+        String[] args = {"Egon Olsen", "--include-regex", "[a-"};
+
+        // Act
+        CmdParser.parse(args);
+    }
+
+    @Test
+    public void parse_indexBuild_setCommandAndDirectory() {
+        // Arrange
+        String[] args = {"index", "build", "/tmp/docs"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertEquals(IndexCommand.BUILD, result.getIndexCommand());
+            assertEquals("/tmp/docs", result.getRootDirectory());
+            assertTrue(result.getSearchTerms().isEmpty());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_indexWithoutCommand_searchTerms() {
+        // Arrange
+        String[] args = {"index", "fund"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertNull(result.getIndexCommand());
+            assertEquals(Arrays.asList("index", "fund"), result.getSearchTerms());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_indexUpdate_setCommand() {
+        // Arrange
+        String[] args = {"index", "update", "-d", "/tmp/docs"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertEquals(IndexCommand.UPDATE, result.getIndexCommand());
+            assertEquals("/tmp/docs", result.getRootDirectory());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_indexWatch_setCommand() {
+        // Arrange
+        String[] args = {"index", "watch"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertEquals(IndexCommand.WATCH, result.getIndexCommand());
+            assertEquals(".", result.getRootDirectory());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_server_setServerAndPort() {
+        // Arrange
+        String[] args = {"--server", "--port", "5000"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertTrue(result.isServer());
+            assertEquals(5000, result.getPort());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test(expected = ParseException.class)
+    public void parse_portOutOfRange_throwException() throws ParseException {
+        // Arrange
+        String[] args = {"--server", "--port", "70000"};
+
+        // Act
+        CmdParser.parse(args);
+    }
+
+    @Test
+    public void parse_statsJson_enableStats() {
+        // Arrange
+        String[] args = {"sed", "--stats-json"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertTrue(result.isStats());
+            assertTrue(result.isStatsJson());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
+
+    @Test
+    public void parse_abbreviatedHelp_setHelp() {
+        // Arrange
+        String[] args = {"sed", "--hel"};
+
+        try {
+            // Act
+            SearchConfiguration result = CmdParser.parse(args);
+
+            // Assert
+            assertTrue(result.isHelp());
+        } catch (ParseException e) {
+            fail();
+        }
+    }
 }
@@ -0,0 +1,140 @@
+package com.sepherot.fcs;
+
+import static org.junit.Assert.*;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+public class ContentCacheTests {
+    private Path root;
+    private Path fileTxt;
+    private Path fileLog;
+
+    public ContentCacheTests() throws IOException {
+        root = Files.createTempDirectory("root").toAbsolutePath();
+        fileTxt = root.resolve("lorem.txt");
+        fileLog = root.resolve("amarth.log");
+
+        Files.write(fileTxt, "Lorem ipsum dolor sit amet".getBytes());
+        Files.write(fileLog, "2018-07-04 21:30:45 WARN - Invalid request".getBytes());
+    }
+
+    @After
+    public void removeTestDirectory() throws IOException {
+        FileUtils.deleteDirectory(root.toFile());
+    }
+
+    private static String asString(ByteBuffer content) {
+        byte[] bytes = new byte[content.remaining()];
+        content.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void get_sameFileTwice_countHit() {
+        // Arrange
+        ContentCache target = new ContentCache(1024, false);
+        target.get(fileTxt);
+
+        // Act
+        ByteBuffer result = target.get(fileTxt);
+
+        // Assert
+        assertEquals("Lorem ipsum dolor sit amet", asString(result));
+        assertEquals(1, target.getHits());
+        assertEquals(1, target.getMisses());
+        assertEquals(26, target.getSize());
+    }
+
+    @Test
+    public void get_changedFile_readAgain() throws IOException {
+        // Arrange
+        ContentCache target = new ContentCache(1024, false);
+        target.get(fileTxt);
+        Files.write(fileTxt, "Egon Olsen".getBytes());
+        Files.setLastModifiedTime(fileTxt, FileTime.fromMillis(0));
+
+        // Act
+        ByteBuffer result = target.get(fileTxt);
+
+        // Assert
+        assertEquals("Egon Olsen", asString(result));
+        assertEquals(2, target.getMisses());
+        assertEquals(10, target.getSize());
+    }
+
+    @Test
+    public void get_capacityExceeded_evictLeastRecentlyUsed() throws IOException {
+        // Arrange
+        ContentCache target = new ContentCache(40, false);
+        Path[] files = new Path[5];
+        for(int i = 0; i < files.length; i++) {
+            files[i] = root.resolve("file" + i + ".txt");
+            Files.write(files[i], "0123456789".getBytes());
+        }
+        target.get(files[0]);
+        target.get(files[1]);
+        target.get(files[2]);
+        target.get(files[0]);
+        target.get(files[3]);
+
+        // Act
+        target.get(files[4]);
+
+        // Assert
+        assertEquals(1, target.getEvictions());
+        assertEquals(40, target.getSize());
+        target.get(files[0]);
+        assertEquals(2, target.getHits());
+        target.get(files[1]);
+        assertEquals(6, target.getMisses());
+    }
+
+    @Test
+    public void get_fileLargerThanQuarter_notCached() {
+        // Arrange
+        ContentCache target = new ContentCache(64, true);
+
+        // Act
+        ByteBuffer result = target.get(fileLog);
+
+        // Assert
+        assertNull(result);
+        assertEquals(0, target.getEntries());
+    }
+
+    @Test
+    public void get_offHeap_returnDirectBuffer() {
+        // Arrange
+        ContentCache target = new ContentCache(1024, true);
+
+        // Act
+        ByteBuffer result = target.get(fileTxt);
+
+        // Assert
+        assertTrue(result.isDirect());
+        assertEquals("Lorem ipsum dolor sit amet", asString(result));
+    }
+
+    @Test
+    public void get_notAccepted_notCached() {
+        // Arrange
+        ContentCache target = new ContentCache(1024, false);
+
+        // Act
+        ByteBuffer result = target.get(fileTxt, start -> false);
+
+        // Assert
+        assertNull(result);
+        assertEquals(0, target.getEntries());
+        assertEquals(0, target.getSize());
+    }
+}
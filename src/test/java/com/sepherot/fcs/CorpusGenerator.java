@@ -0,0 +1,427 @@
+package com.sepherot.fcs;
+
+import com.sepherot.fcs.data.BinaryMode;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Generates reproducible directory trees for performance and end-to-end tests
+ *
+ * The shape of the tree is given by a {@link Profile}, the content by the seed: the same profile and seed always
+ * result in the same files. Text files consist of random words, logs of timestamped entries and binary blobs of
+ * control and non-ASCII bytes. A share of the lines contains search terms, which never appear anywhere else, so the
+ * generator knows every match in advance and tests can check the results while measuring the speed.
+ *
+ * Can be run from the test classes to create a corpus for manual measurements:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.sepherot.fcs.CorpusGenerator [dir] [profile] [seed]
+ * </pre>
+ * The expected matches are written next to the directory, one "term, line, file" per line.
+ *
+ * @author      Stephan Tischer
+ * @version     0.1.0
+ * @since       2026-10-17
+ */
+public final class CorpusGenerator {
+    /**
+     * Shape of a generated tree
+     */
+    public static final class Profile {
+        /**
+         * Few hundred small files, fast enough for every test run
+         */
+        public static final Profile SMALL = new Profile(3, 3, 5, 256, 8 * 1024, 0.02, 1024 * 1024, 0.05, 4, 0.05);
+
+        /**
+         * Narrow tree with many levels
+         */
+        public static final Profile DEEP = new Profile(12, 2, 2, 256, 4 * 1024, 0.0, 0, 0.05, 4, 0.05);
+
+        /**
+         * Flat tree with many files per directory
+         */
+        public static final Profile WIDE = new Profile(1, 20, 500, 256, 4 * 1024, 0.0, 0, 0.05, 4, 0.05);
+
+        /**
+         * Tens of thousands of files and some huge logs, for measurements
+         */
+        public static final Profile LARGE = new Profile(4, 6, 20, 1024, 64 * 1024, 0.001, 64 * 1024 * 1024, 0.05, 8, 0.01);
+
+        private final int depth;
+        private final int width;
+        private final int filesPerDirectory;
+        private final int minFileSize;
+        private final int maxFileSize;
+        private final double logShare;
+        private final long logSize;
+        private final double binaryShare;
+        private final int terms;
+        private final double hitRate;
+
+        /**
+         * Create new profile
+         *
+         * @param depth Number of directory levels below the root
+         * @param width Number of subdirectories of every directory above the deepest level
+         * @param filesPerDirectory Number of files in every directory
+         * @param minFileSize Minimum size of text files and binary blobs in bytes
+         * @param maxFileSize Maximum size of text files and binary blobs in bytes
+         * @param logShare Share of the files which are huge logs
+         * @param logSize Size of a log in bytes
+         * @param binaryShare Share of the files which are binary blobs
+         * @param terms Number of different search terms
+         * @param hitRate Share of the lines containing a term, every second binary blob contains one
+         */
+        public Profile(int depth, int width, int filesPerDirectory, int minFileSize, int maxFileSize, double logShare,
+                       long logSize, double binaryShare, int terms, double hitRate) {
+            this.depth = depth;
+            this.width = width;
+            this.filesPerDirectory = filesPerDirectory;
+            this.minFileSize = minFileSize;
+            this.maxFileSize = maxFileSize;
+            this.logShare = logShare;
+            this.logSize = logSize;
+            this.binaryShare = binaryShare;
+            this.terms = terms;
+            this.hitRate = hitRate;
+        }
+
+        /**
+         * Return predefined profile by its name
+         *
+         * @param name Name of the profile, case insensitive
+         * @return Profile
+         */
+        public static Profile byName(String name) {
+            switch(name.toUpperCase()) {
+                case "SMALL":
+                    return SMALL;
+                case "DEEP":
+                    return DEEP;
+                case "WIDE":
+                    return WIDE;
+                case "LARGE":
+                    return LARGE;
+                default:
+                    throw new IllegalArgumentException("Unknown profile " + name + ", use small, deep, wide or large");
+            }
+        }
+    }
+
+    /**
+     * Generated tree and the matches a search for all terms has to find
+     */
+    public static final class Corpus {
+        private final Path root;
+        private final List<String> terms;
+        private int files;
+        private long bytes;
+
+        /**
+         * Lines of every term in every text file
+         */
+        private final Map<String, Map<String, TreeSet<Integer>>> textMatches = new TreeMap<>();
+
+        /**
+         * Line of every term in every binary blob, blobs have no line separators
+         */
+        private final Map<String, Map<String, TreeSet<Integer>>> binaryMatches = new TreeMap<>();
+
+        Corpus(Path root, List<String> terms) {
+            this.root = root;
+            this.terms = terms;
+        }
+
+        /**
+         * Return the matches grouped like the results of a search with line numbers
+         *
+         * @param binaryMode How the search handles binary files
+         * @return Lines by file by term, 0 for binary files which only report a match
+         */
+        public Map<String, Map<String, List<Integer>>> expected(BinaryMode binaryMode) {
+            Map<String, Map<String, List<Integer>>> expected = new TreeMap<>();
+            add(expected, textMatches, false);
+            if(binaryMode != BinaryMode.SKIP)
+                add(expected, binaryMatches, binaryMode == BinaryMode.MATCH_ONLY);
+            return expected;
+        }
+
+        private static void add(Map<String, Map<String, List<Integer>>> expected,
+                                Map<String, Map<String, TreeSet<Integer>>> matches, boolean matchOnly) {
+            for(Map.Entry<String, Map<String, TreeSet<Integer>>> term: matches.entrySet()) {
+                for(Map.Entry<String, TreeSet<Integer>> file: term.getValue().entrySet()) {
+                    List<Integer> lines = new ArrayList<>();
+                    if(matchOnly)
+                        lines.add(0);
+                    else
+                        lines.addAll(file.getValue());
+                    expected.computeIfAbsent(term.getKey(), k -> new TreeMap<>()).put(file.getKey(), lines);
+                }
+            }
+        }
+
+        private void record(Map<String, Map<String, TreeSet<Integer>>> matches, String term, Path file, int line) {
+            matches.computeIfAbsent(term, k -> new TreeMap<>())
+                    .computeIfAbsent(file.toString(), k -> new TreeSet<>()).add(line);
+        }
+
+        public Path getRoot() {
+            return root;
+        }
+
+        public List<String> getTerms() {
+            return terms;
+        }
+
+        public int getFiles() {
+            return files;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    private static final String[] WORDS = {
+        "public", "static", "final", "class", "return", "private", "import", "string", "value", "result",
+        "config", "buffer", "stream", "writer", "reader", "search", "index", "matcher", "walker", "cursor",
+        "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "tempor",
+        "{", "}", "(", ")", ";", "=", "+", "//", "#", "<tag>"
+    };
+
+    private static final String[] TEXT_EXTENSIONS = {".txt", ".java", ".py", ".md", ".xml"};
+
+    private static final String[] LOG_LEVELS = {"DEBUG", "INFO", "INFO", "INFO", "WARN", "ERROR"};
+
+    private final Profile profile;
+    private final Random random;
+    private final Corpus corpus;
+
+    private CorpusGenerator(Path root, Profile profile, long seed) {
+        this.profile = profile;
+        this.random = new Random(seed);
+        this.corpus = new Corpus(root, terms(profile.terms));
+    }
+
+    /**
+     * Return the search terms, they contain an underscore and a fixed number of digits, so they neither appear in
+     * the generated words nor in each other
+     *
+     * @param count Number of terms
+     * @return Terms
+     */
+    public static List<String> terms(int count) {
+        List<String> terms = new ArrayList<>();
+        for(int i = 0; i < count; i++)
+            terms.add(String.format("fcs_term_%03d", i));
+        return terms;
+    }
+
+    /**
+     * Generate a tree
+     *
+     * @param root Directory to generate the tree in, created if necessary
+     * @param profile Shape of the tree
+     * @param seed Seed of the content
+     * @return Generated tree with the expected matches
+     * @throws IOException Writing the files failed
+     */
+    public static Corpus generate(Path root, Profile profile, long seed) throws IOException {
+        CorpusGenerator generator = new CorpusGenerator(root, profile, seed);
+        generator.generateDirectory(root, 0);
+        return generator.corpus;
+    }
+
+    /**
+     * Generate the files of a directory and its subdirectories
+     *
+     * @param dir Directory to generate
+     * @param level Level of the directory below the root
+     * @throws IOException Writing the files failed
+     */
+    private void generateDirectory(Path dir, int level) throws IOException {
+        Files.createDirectories(dir);
+
+        for(int i = 0; i < profile.filesPerDirectory; i++) {
+            double kind = random.nextDouble();
+            if(kind < profile.logShare)
+                generateLog(dir.resolve("server" + i + ".log"));
+            else if(kind < profile.logShare + profile.binaryShare)
+                generateBinary(dir.resolve("blob" + i + ".bin"));
+            else
+                generateText(dir.resolve("file" + i + TEXT_EXTENSIONS[random.nextInt(TEXT_EXTENSIONS.length)]));
+        }
+
+        if(level < profile.depth) {
+            for(int i = 0; i < profile.width; i++)
+                generateDirectory(dir.resolve("dir" + i), level + 1);
+        }
+    }
+
+    /**
+     * Return a random size between the minimum and maximum size of the profile
+     *
+     * @return Size in bytes
+     */
+    private int nextSize() {
+        return profile.minFileSize + random.nextInt(profile.maxFileSize - profile.minFileSize + 1);
+    }
+
+    /**
+     * Return a random term, NULL if the line or blob should not contain a term
+     *
+     * @param rate Probability of a term
+     * @return Term or NULL
+     */
+    private String nextHit(double rate) {
+        if(corpus.terms.isEmpty() || random.nextDouble() >= rate)
+            return null;
+        return corpus.terms.get(random.nextInt(corpus.terms.size()));
+    }
+
+    /**
+     * Generate a text file of random words
+     *
+     * @param file Path to file
+     * @throws IOException Writing the file failed
+     */
+    private void generateText(Path file) throws IOException {
+        int size = nextSize();
+        StringBuilder line = new StringBuilder();
+        try(BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            long written = 0;
+            for(int number = 1; written < size; number++) {
+                line.setLength(0);
+                int words = 3 + random.nextInt(10);
+                for(int w = 0; w < words; w++) {
+                    if(w > 0)
+                        line.append(' ');
+                    line.append(WORDS[random.nextInt(WORDS.length)]);
+                }
+                appendHit(line, file, number);
+                line.append('\n');
+                writer.write(line.toString());
+                written += line.length();
+            }
+            count(written);
+        }
+    }
+
+    /**
+     * Generate a huge log file
+     *
+     * @param file Path to file
+     * @throws IOException Writing the file failed
+     */
+    private void generateLog(Path file) throws IOException {
+        StringBuilder line = new StringBuilder();
+        try(BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            long written = 0;
+            for(int number = 1; written < profile.logSize; number++) {
+                line.setLength(0);
+                int second = number % 86400;
+                line.append(String.format("2026-10-17 %02d:%02d:%02d %s - request %d %s",
+                        second / 3600, second / 60 % 60, second % 60,
+                        LOG_LEVELS[random.nextInt(LOG_LEVELS.length)], number, WORDS[random.nextInt(WORDS.length)]));
+                appendHit(line, file, number);
+                line.append('\n');
+                writer.write(line.toString());
+                written += line.length();
+            }
+            count(written);
+        }
+    }
+
+    /**
+     * Maybe append a term to the line and record it
+     *
+     * @param line Line to append to
+     * @param file File the line belongs to
+     * @param number Number of the line
+     */
+    private void appendHit(StringBuilder line, Path file, int number) {
+        String term = nextHit(profile.hitRate);
+        if(term == null)
+            return;
+        line.append(' ').append(term);
+        corpus.record(corpus.textMatches, term, file, number);
+    }
+
+    /**
+     * Generate a binary blob, starting with a NUL byte and without letters, digits or line separators
+     *
+     * @param file Path to file
+     * @throws IOException Writing the file failed
+     */
+    private void generateBinary(Path file) throws IOException {
+        byte[] content = new byte[nextSize()];
+        for(int i = 1; i < content.length; i++) {
+            int b = random.nextInt(0x60);
+            // Control characters except line separators, or non-ASCII bytes
+            content[i] = (byte) (b < 0x20 ? (b == '\n' || b == '\r' ? 0 : b) : b + 0xA0 - 0x20);
+        }
+
+        String term = nextHit(0.5);
+        if(term != null) {
+            byte[] bytes = term.getBytes(StandardCharsets.US_ASCII);
+            int offset = 1 + random.nextInt(Math.max(1, content.length - bytes.length - 1));
+            if(offset + bytes.length <= content.length) {
+                System.arraycopy(bytes, 0, content, offset, bytes.length);
+                corpus.record(corpus.binaryMatches, term, file, 1);
+            }
+        }
+
+        try(OutputStream out = Files.newOutputStream(file)) {
+            out.write(content);
+        }
+        count(content.length);
+    }
+
+    private void count(long bytes) {
+        corpus.files++;
+        corpus.bytes += bytes;
+    }
+
+    /**
+     * Generate a tree and write the expected matches of a search in text mode next to it
+     *
+     * @param args Directory, profile name (default small) and seed (default 42)
+     * @throws IOException Writing the files failed
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1) {
+            System.err.println("Usage: CorpusGenerator [dir] [small|deep|wide|large] [seed]");
+            System.exit(1);
+        }
+
+        Path root = Paths.get(args[0]).toAbsolutePath();
+        Profile profile = Profile.byName(args.length > 1 ? args[1] : "small");
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+
+        Corpus corpus = generate(root, profile, seed);
+        Path expectedFile = root.resolveSibling(root.getFileName() + ".expected");
+        try(BufferedWriter writer = Files.newBufferedWriter(expectedFile, StandardCharsets.UTF_8)) {
+            for(Map.Entry<String, Map<String, List<Integer>>> term: corpus.expected(BinaryMode.TEXT).entrySet()) {
+                for(Map.Entry<String, List<Integer>> file: term.getValue().entrySet()) {
+                    for(Integer line: file.getValue())
+                        writer.write(String.format("%s, %d, %s%n", term.getKey(), line, file.getKey()));
+                }
+            }
+        }
+
+        System.out.printf("Generated %d files with %d bytes in %s, terms %s, expected matches in %s%n",
+                corpus.getFiles(), corpus.getBytes(), root, String.join(" ", corpus.getTerms()), expectedFile);
+    }
+}
@@ -211,4 +211,287 @@ public class DirWalkerTests {
         // Assert
         assertEquals(0, result.size());
     }
+
+    @Test
+    public void walk_searchRecursive_passAllFiles() {
+        // Arrange
+        DirWalker target = new DirWalker();
+        List<String> expected = new ArrayList<>();
+        expected.add(fileTxtPath);
+        expected.add(fileLogPath);
+        expected.add(filePyPath);
+        List<String> result = new ArrayList<>();
+
+        // Act
+        target.walk(rootPath, result::add);
+
+        // Assert
+        assertEquals(expected.size(), result.size());
+        for(String exp: expected)
+            assertTrue(result.contains(exp));
+    }
+
+    @Test
+    public void listFiles_notFollowLinks_skipLinks() throws IOException {
+        // Arrange
+        DirWalker target = new DirWalker();
+        Files.createSymbolicLink(Paths.get(sub2Path, "linked.txt"), Paths.get(fileTxtPath));
+        Files.createSymbolicLink(Paths.get(sub2Path, "linkedDir"), Paths.get(sub1Path));
+
+        // Act
+        List<String> result = target.listFiles(rootPath);
+
+        // Assert
+        assertEquals(3, result.size());
+    }
+
+    @Test
+    public void listFiles_followLinksWithCycle_visitEveryFileOnce() throws IOException {
+        // Arrange
+        DirWalker target = new DirWalker();
+        target.setFollowLinks(true);
+        Files.createSymbolicLink(Paths.get(sub2Path, "linked.txt"), Paths.get(fileTxtPath));
+        Files.createSymbolicLink(Paths.get(sub2Path, "cycle"), Paths.get(rootPath));
+
+        // Act
+        List<String> result = target.listFiles(rootPath);
+
+        // Assert
+        assertEquals(4, result.size());
+        assertTrue(result.contains(Paths.get(sub2Path, "linked.txt").toString()));
+    }
+
+    @Test
+    public void listFiles_parallel_allFiles() {
+        // Arrange
+        DirWalker target = new DirWalker();
+        target.setParallelism(4);
+        List<String> expected = new ArrayList<>();
+        expected.add(fileTxtPath);
+        expected.add(fileLogPath);
+        expected.add(filePyPath);
+
+        // Act
+        List<String> result = Collections.synchronizedList(new ArrayList<>());
+        target.walk(rootPath, result::add);
+
+        // Assert
+        assertEquals(expected.size(), result.size());
+        for(String exp: expected)
+            assertTrue(result.contains(exp));
+    }
+
+    @Test
+    public void listFiles_parallelDeepTree_allFiles() throws IOException {
+        // Arrange
+        DirWalker target = new DirWalker();
+        target.setParallelism(4);
+        Path deep = Paths.get(sub2Path);
+        for(int i = 0; i < 500; i++)
+            deep = deep.resolve("d");
+        Files.createDirectories(deep);
+        Path deepFile = Files.write(deep.resolve("deep.txt"), "sed".getBytes());
+
+        // Act
+        List<String> result = Collections.synchronizedList(new ArrayList<>());
+        target.walk(rootPath, result::add);
+
+        // Assert
+        assertEquals(4, result.size());
+        assertTrue(result.contains(deepFile.toString()));
+    }
+
+    @Test
+    public void listFiles_parallelFollowLinksWithCycle_visitEveryFileOnce() throws IOException {
+        // Arrange
+        DirWalker target = new DirWalker();
+        target.setParallelism(4);
+        target.setFollowLinks(true);
+        Files.createSymbolicLink(Paths.get(sub2Path, "linked.txt"), Paths.get(fileTxtPath));
+        Files.createSymbolicLink(Paths.get(sub2Path, "cycle"), Paths.get(rootPath));
+
+        // Act
+        List<String> result = Collections.synchronizedList(new ArrayList<>());
+        target.walk(rootPath, result::add);
+
+        // Assert
+        assertEquals(4, result.size());
+    }
+
+    @Test
+    public void walk_parallelVisitorStops_returnFalse() {
+        // Arrange
+        DirWalker target = new DirWalker();
+        target.setParallelism(4);
+
+        // Act
+        boolean result = target.walk(rootPath, file -> false);
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    public void listFiles_ignoreFile_skipIgnoredPaths() throws IOException {
+        // Arrange
+        DirWalker target = new DirWalker();
+        target.setRespectIgnoreFiles(true);
+        Files.write(Paths.get(rootPath, ".gitignore"), "# Logs\n*.log\nsub2/\n".getBytes());
+        Files.write(Paths.get(sub2Path, "hidden.txt"), "Hidden".getBytes());
+
+        // Act
+        List<String> result = target.listFiles(rootPath);
+
+        // Assert
+        assertEquals(3, result.size());
+        assertTrue(result.contains(fileTxtPath));
+        assertTrue(result.contains(filePyPath));
+        assertFalse(result.contains(fileLogPath));
+    }
+
+    @Test
+    public void listFiles_ignoreFileNegatedInSubdirectory_includePath() throws IOException {
+        // Arrange
+        DirWalker target = new DirWalker();
+        target.setRespectIgnoreFiles(true);
+        Files.write(Paths.get(rootPath, ".gitignore"), "*.log\n*.py\n".getBytes());
+        Files.write(Paths.get(sub1Path, ".ignore"), "!amarth.log\n".getBytes());
+
+        // Act
+        List<String> result = target.listFiles(rootPath);
+
+        // Assert
+        assertTrue(result.contains(fileLogPath));
+        assertFalse(result.contains(filePyPath));
+    }
+
+    @Test
+    public void listFiles_notRespectIgnoreFiles_allFiles() throws IOException {
+        // Arrange
+        DirWalker target = new DirWalker();
+        Files.write(Paths.get(rootPath, ".gitignore"), "sub1/\n".getBytes());
+
+        // Act
+        List<String> result = target.listFiles(rootPath);
+
+        // Assert
+        assertTrue(result.contains(filePyPath));
+        assertTrue(result.contains(fileLogPath));
+    }
+
+    @Test
+    public void listFiles_parallelIgnoreFile_skipIgnoredPaths() throws IOException {
+        // Arrange
+        DirWalker target = new DirWalker();
+        target.setParallelism(4);
+        target.setRespectIgnoreFiles(true);
+        Files.write(Paths.get(rootPath, ".gitignore"), "/sub1/*.py\n".getBytes());
+        Files.createDirectory(Paths.get(rootPath, ".git"));
+        Files.write(Paths.get(rootPath, ".git", "config.txt"), "Config".getBytes());
+
+        // Act
+        List<String> result = Collections.synchronizedList(new ArrayList<>());
+        target.walk(rootPath, result::add);
+
+        // Assert
+        assertFalse(result.contains(filePyPath));
+        assertTrue(result.contains(fileLogPath));
+        assertFalse(result.contains(Paths.get(rootPath, ".git", "config.txt").toString()));
+    }
+
+    @Test
+    public void hasAllowedExtension_differentCase_returnTrue() {
+        // Arrange
+        DirWalker target = new DirWalker(Arrays.asList(".PY", "txt"), true);
+
+        // Act & Assert
+        assertTrue(target.hasAllowedExtension("amon.py"));
+        assertTrue(target.hasAllowedExtension("LOREM.TXT"));
+        assertFalse(target.hasAllowedExtension("amarth.log"));
+        assertFalse(target.hasAllowedExtension("txt"));
+    }
+
+    @Test
+    public void listFiles_includeGlob_onlyMatchingFiles() {
+        // Arrange
+        DirWalker target = new DirWalker();
+        target.setPathFilter(new PathFilter(Arrays.asList("*.py", "/lorem.*"), null, null, null));
+
+        // Act
+        List<String> result = target.listFiles(rootPath);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertTrue(result.contains(filePyPath));
+        assertTrue(result.contains(fileTxtPath));
+    }
+
+    @Test
+    public void listFiles_excludeGlobDirectory_skipDirectory() {
+        // Arrange
+        DirWalker target = new DirWalker();
+        target.setPathFilter(new PathFilter(null, Collections.singletonList("sub1"), null, null));
+
+        // Act
+        List<String> result = target.listFiles(rootPath);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertTrue(result.contains(fileTxtPath));
+    }
+
+    @Test
+    public void listFiles_parallelRegexFilters_onlyMatchingFiles() {
+        // Arrange
+        DirWalker target = new DirWalker();
+        target.setParallelism(4);
+        target.setPathFilter(new PathFilter(null, null,
+                Collections.singletonList("^sub1/"), Collections.singletonList("\\.log$")));
+
+        // Act
+        List<String> result = Collections.synchronizedList(new ArrayList<>());
+        target.walk(rootPath, result::add);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertTrue(result.contains(filePyPath));
+    }
+
+    @Test
+    public void listFiles_indexFiles_skipped() throws IOException {
+        // Arrange
+        DirWalker target = new DirWalker();
+        Path index = Paths.get(rootPath, TrigramIndex.INDEX_FILE);
+        Path temp = Paths.get(rootPath, TrigramIndex.INDEX_FILE + "123.tmp");
+        Files.write(index, "index".getBytes());
+        Files.write(temp, "index".getBytes());
+
+        // Act
+        List<String> result = target.listFiles(rootPath);
+
+        // Assert
+        assertFalse(result.contains(index.toString()));
+        assertFalse(result.contains(temp.toString()));
+        assertFalse(target.accepts(rootPath, index.toString()));
+        assertTrue(result.contains(fileTxtPath));
+    }
+
+    @Test
+    public void listDirectories_ignoredDirectory_notListed() throws IOException {
+        // Arrange
+        DirWalker target = new DirWalker();
+        target.setRespectIgnoreFiles(true);
+        Files.write(Paths.get(rootPath, ".gitignore"), "sub2/\n".getBytes());
+        Files.createDirectories(Paths.get(sub2Path, "deep"));
+
+        // Act
+        List<Path> result = target.listDirectories(rootPath, rootPath);
+        List<Path> below = target.listDirectories(rootPath, Paths.get(sub2Path, "deep").toString());
+
+        // Assert
+        assertTrue(result.contains(Paths.get(rootPath)));
+        assertTrue(result.contains(Paths.get(sub1Path)));
+        assertFalse(result.contains(Paths.get(sub2Path)));
+        assertTrue(below.isEmpty());
+    }
 }
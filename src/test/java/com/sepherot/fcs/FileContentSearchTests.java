@@ -8,6 +8,7 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -172,4 +173,148 @@ public class FileContentSearchTests {
             assertTrue(false);
         }
     }
+
+    @Test
+    public void search_multipleThreads_sameResultAsSequential() {
+        try {
+            // Arrange
+            String[] args = new String[] {"sed", "def", "request", "-d", rootPath, "-l"};
+            String[] parallelArgs = new String[] {"sed", "def", "request", "-d", rootPath, "-l", "--threads", "4"};
+
+            // Act
+            String expected = new FileContentSearch(args).search();
+            String result = new FileContentSearch(parallelArgs).search();
+
+            // Assert
+            assertEquals(expected, result);
+        } catch (ParseException e) {
+            assertTrue(false);
+        }
+    }
+
+    @Test
+    public void search_stream_writeResultsOfFile() {
+        try {
+            // Arrange
+            String[] args = new String[] {"sed", "-d", rootPath, "-long", "-l", "--stream"};
+            FileContentSearch fcs = new FileContentSearch(args);
+            StringWriter out = new StringWriter();
+
+            // Act
+            fcs.search(out);
+            String result = out.toString();
+
+            // Assert
+            assertTrue(result.contains(fileTxtPath));
+            assertTrue(result.contains(">> sed"));
+            assertTrue(result.contains("2, 3"));
+        } catch (ParseException | IOException e) {
+            assertTrue(false);
+        }
+    }
+
+    @Test
+    public void search_maxCount_stopAfterFirstFile() {
+        try {
+            // Arrange
+            String[] args = new String[] {"e", "-d", rootPath, "-long", "--first-match"};
+            FileContentSearch fcs = new FileContentSearch(args);
+
+            // Act
+            String result = fcs.search();
+
+            // Assert
+            int files = 0;
+            for(String path: new String[] {fileTxtPath, filePyPath, fileLogPath}) {
+                if(result.contains(path))
+                    files++;
+            }
+            assertEquals(1, files);
+        } catch (ParseException e) {
+            assertTrue(false);
+        }
+    }
+
+    @Test
+    public void search_index_sameResultAsWalk() {
+        try {
+            // Arrange
+            FileContentSearch builder = new FileContentSearch(new String[] {"index", "build", rootPath});
+            builder.buildIndex();
+            FileContentSearch walked = new FileContentSearch(new String[] {"sed", "def", "-d", rootPath, "-l"});
+            FileContentSearch indexed = new FileContentSearch(new String[] {"sed", "def", "-d", rootPath, "-l", "--index"});
+
+            // Act
+            String result = indexed.search();
+
+            // Assert
+            assertEquals(walked.search(), result);
+        } catch (ParseException | IOException e) {
+            assertTrue(false);
+        }
+    }
+
+    @Test
+    public void search_stats_countFilesAndBytes() {
+        try {
+            // Arrange
+            FileContentSearch fcs = new FileContentSearch(new String[] {"sed", "-d", rootPath, "-l", "--stats"});
+            long bytes = new File(fileTxtPath).length() + new File(filePyPath).length() + new File(fileLogPath).length();
+
+            // Act
+            fcs.search();
+
+            // Assert
+            SearchStats stats = fcs.getStats();
+            assertEquals(3, stats.getFilesVisited());
+            assertEquals(3, stats.getFilesSearched());
+            assertEquals(bytes, stats.getBytesRead());
+            assertEquals(bytes, stats.getBytesScanned());
+            assertEquals(2, stats.getMatches());
+            assertTrue(stats.getWallTime() > 0);
+            assertTrue(fcs.formatStats().contains("Statistics:"));
+        } catch (ParseException e) {
+            assertTrue(false);
+        }
+    }
+
+    @Test
+    public void search_noStats_collectNothing() {
+        try {
+            // Arrange
+            FileContentSearch fcs = new FileContentSearch(new String[] {"sed", "-d", rootPath});
+
+            // Act
+            fcs.search();
+
+            // Assert
+            assertNull(fcs.getStats());
+            assertEquals("", fcs.formatStats());
+        } catch (ParseException e) {
+            assertTrue(false);
+        }
+    }
+
+    @Test
+    public void search_metrics_reportSearch() {
+        try {
+            // Arrange
+            FileContentSearch fcs = new FileContentSearch(new String[] {"sed", "-d", rootPath, "-t", "2"});
+            SearchMetrics metrics = new SearchMetrics();
+            fcs.setMetrics(metrics);
+
+            // Act
+            fcs.search();
+
+            // Assert
+            assertEquals(1, metrics.getSearches());
+            assertEquals(0, metrics.getActiveSearches());
+            assertEquals(3, metrics.getFilesScanned());
+            assertEquals(0, metrics.getQueueDepth());
+            assertTrue(metrics.getLatencyMaxMillis() > 0);
+            assertEquals("", fcs.formatStats());
+        } catch (ParseException e) {
+            assertTrue(false);
+        }
+    }
 }
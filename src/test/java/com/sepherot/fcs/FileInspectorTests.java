@@ -2,16 +2,20 @@ package com.sepherot.fcs;
 
 import static org.junit.Assert.*;
 
+import com.sepherot.fcs.data.BinaryMode;
 import com.sepherot.fcs.data.SearchResult;
 import org.apache.commons.io.FileUtils;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class FileInspectorTests {
@@ -213,6 +217,20 @@ public class FileInspectorTests {
         assertEquals(15, results.get(1).getLineNumber().intValue());
     }
 
+    @Test
+    public void executeSearchShowLines_multipleHitsInLine_returnLineOnce() {
+        // Arrange
+        String term = "or";
+
+        // Act
+        List<SearchResult> results = FileInspector.executeSearchShowLines(fileTxtPath, term);
+
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals(1, results.get(0).getLineNumber().intValue());
+        assertEquals(2, results.get(1).getLineNumber().intValue());
+    }
+
     @Test
     public void search_callsExecuteSearch_returnOnlyOneResult() {
         // Arrange
@@ -252,4 +270,180 @@ public class FileInspectorTests {
         // Assert
         assertEquals(2, results.size());
     }
+
+    @Test
+    public void search_multipleTermsShowLines_returnLinesForEachTerm() {
+        // Arrange
+        List<String> term = new ArrayList<>();
+        term.add("sed");
+        term.add("Lorem");
+
+        // Act
+        List<SearchResult> results = FileInspector.search(fileTxtPath, term, false, true);
+
+        // Assert
+        assertEquals(3, results.size());
+        assertEquals("sed", results.get(0).getTerm());
+        assertEquals(2, results.get(0).getLineNumber().intValue());
+        assertEquals("sed", results.get(1).getTerm());
+        assertEquals(3, results.get(1).getLineNumber().intValue());
+        assertEquals("lorem", results.get(2).getTerm());
+        assertEquals(1, results.get(2).getLineNumber().intValue());
+    }
+
+    @Test
+    public void search_termSpansChunks_returnLineNumber() throws IOException {
+        // Arrange
+        StringBuilder content = new StringBuilder();
+        for(int i = 0; i < FileInspector.CHUNK_SIZE - 3; i++)
+            content.append(i % 100 == 99 ? '\n' : 'a');
+        content.append("Egon Olsen\nBenny");
+        Path largeFile = Paths.get(rootPath, "large.txt");
+        Files.write(largeFile, content.toString().getBytes());
+        List<String> term = new ArrayList<>();
+        term.add("egon");
+        term.add("benny");
+
+        // Act
+        List<SearchResult> results = FileInspector.search(largeFile.toString(), term, false, true);
+
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals((FileInspector.CHUNK_SIZE - 3) / 100 + 1, results.get(0).getLineNumber().intValue());
+        assertEquals((FileInspector.CHUNK_SIZE - 3) / 100 + 2, results.get(1).getLineNumber().intValue());
+    }
+
+    @Test
+    public void isBinary_textContent_returnFalse() {
+        // Arrange
+        ByteBuffer content = ByteBuffer.wrap("Lorem ipsum\tdolor\r\nsit amet".getBytes());
+
+        // Act
+        boolean result = FileInspector.isBinary(content);
+
+        // Assert
+        assertFalse(result);
+    }
+
+    @Test
+    public void isBinary_containsNul_returnTrue() {
+        // Arrange
+        ByteBuffer content = ByteBuffer.wrap(new byte[] {'P', 'K', 3, 4, 0, 'a'});
+
+        // Act
+        boolean result = FileInspector.isBinary(content);
+
+        // Assert
+        assertTrue(result);
+    }
+
+    @Test
+    public void search_binaryFile_handleByMode() throws IOException {
+        // Arrange
+        Path binaryFile = Paths.get(rootPath, "lorem.class");
+        Files.write(binaryFile, "\u0000\u0001sed\nsed".getBytes());
+        TermMatcher matcher = new TermMatcher(Collections.singletonList("sed"), false);
+
+        // Act
+        List<SearchResult> skipped = FileInspector.search(binaryFile.toString(), matcher, true, BinaryMode.SKIP);
+        List<SearchResult> text = FileInspector.search(binaryFile.toString(), matcher, true, BinaryMode.TEXT);
+        List<SearchResult> matchOnly = FileInspector.search(binaryFile.toString(), matcher, true, BinaryMode.MATCH_ONLY);
+
+        // Assert
+        assertEquals(0, skipped.size());
+        assertEquals(2, text.size());
+        assertEquals(1, matchOnly.size());
+        assertNull(matchOnly.get(0).getLineNumber());
+    }
+
+    @Test
+    public void scan_binaryFileMatchOnly_keepResultShape() throws IOException {
+        // Arrange
+        Path binaryFile = Paths.get(rootPath, "lorem.class");
+        Files.write(binaryFile, "\u0000\u0001sed\nsed".getBytes());
+        TermMatcher matcher = new TermMatcher(Arrays.asList("sed", "ipsum"), false);
+
+        // Act
+        FileResults result = FileInspector.scan(binaryFile.toString(), matcher, true, BinaryMode.MATCH_ONLY, null, null);
+        List<SearchResult> results = result.toSearchResults();
+
+        // Assert
+        assertTrue(result.isLinesTracked());
+        assertTrue(result.isBinary());
+        assertEquals(1, results.size());
+        assertEquals("sed", results.get(0).getTerm());
+        assertNull(results.get(0).getLineNumber());
+    }
+
+    @Test
+    public void search_withCache_sameResultAsWithoutCache() {
+        // Arrange
+        TermMatcher matcher = new TermMatcher(Collections.singletonList("sed"), false);
+        ContentCache cache = new ContentCache(1024 * 1024, false);
+        List<SearchResult> expected = FileInspector.search(fileTxtPath, matcher, true, BinaryMode.SKIP);
+        FileInspector.search(fileTxtPath, matcher, true, BinaryMode.SKIP, cache);
+
+        // Act
+        List<SearchResult> result = FileInspector.search(fileTxtPath, matcher, true, BinaryMode.SKIP, cache);
+
+        // Assert
+        assertEquals(1, cache.getHits());
+        assertEquals(expected.size(), result.size());
+        for(int i = 0; i < expected.size(); i++)
+            assertEquals(expected.get(i).getLineNumber(), result.get(i).getLineNumber());
+    }
+
+    @Test
+    public void scan_multipleTerms_returnLinesByTerm() {
+        // Arrange
+        TermMatcher matcher = new TermMatcher(Arrays.asList("sed", "notFound", "lorem"), false);
+
+        // Act
+        FileResults results = FileInspector.scan(fileTxtPath, matcher, true, BinaryMode.SKIP, null, null);
+
+        // Assert
+        assertEquals(fileTxtPath, results.getPath());
+        assertArrayEquals(new int[] {2, 3}, results.getLines(0));
+        assertNull(results.getLines(1));
+        assertArrayEquals(new int[] {1}, results.getLines(2));
+        assertEquals(3, results.getMatchCount());
+        assertArrayEquals(new int[] {2, 0}, results.sortedTerms());
+    }
+
+    @Test
+    public void search_binaryFileWithCache_skipWithoutCaching() throws IOException {
+        // Arrange
+        Path binaryFile = Paths.get(rootPath, "lorem.class");
+        Files.write(binaryFile, "\u0000\u0001sed\nsed".getBytes());
+        TermMatcher matcher = new TermMatcher(Collections.singletonList("sed"), false);
+        ContentCache cache = new ContentCache(1024 * 1024, false);
+        SearchStats stats = new SearchStats();
+
+        // Act
+        List<SearchResult> result = FileInspector.search(binaryFile.toString(), matcher, true, BinaryMode.SKIP, cache, stats);
+
+        // Assert
+        assertEquals(0, result.size());
+        assertEquals(0, cache.getEntries());
+        assertEquals(1, stats.getBinaryFilesSkipped());
+    }
+
+    @Test
+    public void search_withCache_countBytesReadOnMiss() throws IOException {
+        // Arrange
+        TermMatcher matcher = new TermMatcher(Collections.singletonList("sed"), false);
+        ContentCache cache = new ContentCache(1024 * 1024, false);
+        SearchStats stats = new SearchStats();
+        long size = Files.size(Paths.get(fileTxtPath));
+
+        // Act
+        FileInspector.search(fileTxtPath, matcher, true, BinaryMode.SKIP, cache, stats);
+        FileInspector.search(fileTxtPath, matcher, true, BinaryMode.SKIP, cache, stats);
+
+        // Assert
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(size, stats.getBytesRead());
+        assertEquals(2 * size, stats.getBytesScanned());
+    }
 }
@@ -0,0 +1,198 @@
+package com.sepherot.fcs;
+
+import static org.junit.Assert.*;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LiveIndexTests {
+    private Path root;
+    private Path sub1;
+    private Path fileTxt;
+    private Path filePy;
+
+    public LiveIndexTests() throws IOException {
+        root = Files.createTempDirectory("root").toAbsolutePath();
+        sub1 = Files.createDirectory(root.resolve("sub1"));
+        fileTxt = root.resolve("lorem.txt");
+        filePy = sub1.resolve("amon.py");
+
+        Files.write(fileTxt, "Lorem ipsum dolor sit amet".getBytes());
+        Files.write(filePy, "from dataclasses import dataclass".getBytes());
+    }
+
+    @After
+    public void removeTestDirectory() throws IOException {
+        FileUtils.deleteDirectory(root.toFile());
+    }
+
+    @Test
+    public void rescan_newIndex_readAllFiles() {
+        // Arrange
+        LiveIndex target = new LiveIndex(root, new DirWalker());
+
+        // Act
+        int result = target.rescan();
+
+        // Assert
+        assertEquals(2, result);
+        assertEquals(2, target.getFileCount());
+        assertEquals(0, target.rescan());
+    }
+
+    @Test
+    public void candidates_termInOneFile_returnOnlyThatFile() {
+        // Arrange
+        LiveIndex target = new LiveIndex(root, new DirWalker());
+        target.rescan();
+
+        // Act
+        List<String> result = target.candidates(Collections.singletonList("dataclass"), false, false);
+
+        // Assert
+        assertEquals(Collections.singletonList(filePy.toString()), result);
+    }
+
+    @Test
+    public void refresh_newFile_addToIndex() throws IOException {
+        // Arrange
+        LiveIndex target = new LiveIndex(root, new DirWalker());
+        target.rescan();
+        Path fileLog = sub1.resolve("amarth.log");
+        Files.write(fileLog, "WARN - Invalid request".getBytes());
+
+        // Act
+        int result = target.refresh(fileLog);
+
+        // Assert
+        assertEquals(1, result);
+        assertEquals(Collections.singletonList(fileLog.toString()),
+                target.candidates(Collections.singletonList("invalid"), false, false));
+    }
+
+    @Test
+    public void refresh_changedFile_replaceTrigrams() throws IOException {
+        // Arrange
+        LiveIndex target = new LiveIndex(root, new DirWalker());
+        target.rescan();
+        Files.write(fileTxt, "Consetetur sadipscing elitr, sed diam nonumy".getBytes());
+        fileTxt.toFile().setLastModified(System.currentTimeMillis() + 2000);
+
+        // Act
+        target.refresh(fileTxt);
+
+        // Assert
+        assertTrue(target.candidates(Collections.singletonList("ipsum"), false, false).isEmpty());
+        assertEquals(Collections.singletonList(fileTxt.toString()),
+                target.candidates(Collections.singletonList("sadipscing"), false, false));
+        assertEquals(2, target.candidates(Arrays.asList("sed", "dataclass"), false, false).size());
+        assertEquals(2, target.candidates(Collections.singletonList("is"), false, false).size());
+    }
+
+    @Test
+    public void refresh_deletedDirectory_removeAllFiles() throws IOException {
+        // Arrange
+        LiveIndex target = new LiveIndex(root, new DirWalker());
+        target.rescan();
+        FileUtils.deleteDirectory(sub1.toFile());
+
+        // Act
+        target.refresh(sub1);
+
+        // Assert
+        assertEquals(1, target.getFileCount());
+    }
+
+    @Test
+    public void refresh_ignoredFile_notAdded() throws IOException {
+        // Arrange
+        DirWalker walker = new DirWalker();
+        walker.setRespectIgnoreFiles(true);
+        Files.write(root.resolve(".gitignore"), "*.log\n".getBytes());
+        LiveIndex target = new LiveIndex(root, walker);
+        target.rescan();
+        Path fileLog = sub1.resolve("amarth.log");
+        Files.write(fileLog, "WARN - Invalid request".getBytes());
+
+        // Act
+        target.refresh(fileLog);
+
+        // Assert
+        assertTrue(target.candidates(Collections.singletonList("invalid"), false, false).isEmpty());
+    }
+
+    @Test
+    public void save_index_readableAsTrigramIndex() throws IOException {
+        // Arrange
+        LiveIndex target = new LiveIndex(root, new DirWalker());
+        target.rescan();
+
+        // Act
+        target.save();
+
+        // Assert
+        TrigramIndex result = TrigramIndex.open(root);
+        assertEquals(2, result.getFileCount());
+        assertEquals(Collections.singletonList(fileTxt.toString()),
+                result.candidates(Collections.singletonList("lorem"), false, false));
+    }
+
+    @Test
+    public void watcher_fileCreated_updateIndex() throws IOException, InterruptedException {
+        // Arrange
+        LiveIndex target = new LiveIndex(root, new DirWalker());
+        target.rescan();
+        CountDownLatch changed = new CountDownLatch(1);
+
+        try(IndexWatcher watcher = new IndexWatcher(target, index -> changed.countDown())) {
+            watcher.start();
+
+            // Act
+            Path sub2 = Files.createDirectory(root.resolve("sub2"));
+            Files.write(sub2.resolve("egon.txt"), "Egon Olsen has a plan".getBytes());
+
+            // Assert
+            assertTrue(changed.await(10, TimeUnit.SECONDS));
+        }
+        List<String> result = target.candidates(Collections.singletonList("olsen"), false, false);
+        assertEquals(Collections.singletonList(root.resolve("sub2").resolve("egon.txt").toString()), result);
+    }
+
+    @Test
+    public void watcher_savingListener_saveOncePerChange() throws IOException, InterruptedException {
+        // Arrange
+        LiveIndex target = new LiveIndex(root, new DirWalker());
+        target.rescan();
+        target.save();
+        AtomicInteger saves = new AtomicInteger();
+        CountDownLatch saved = new CountDownLatch(1);
+
+        try(IndexWatcher watcher = new IndexWatcher(target, index -> {
+            index.save();
+            saves.incrementAndGet();
+            saved.countDown();
+        })) {
+            watcher.start();
+
+            // Act
+            Files.write(fileTxt, " consetetur sadipscing".getBytes(), StandardOpenOption.APPEND);
+
+            // Assert
+            assertTrue(saved.await(10, TimeUnit.SECONDS));
+            Thread.sleep(IndexWatcher.MAX_DELAY);
+        }
+        assertEquals(1, saves.get());
+    }
+}
@@ -0,0 +1,84 @@
+package com.sepherot.fcs;
+
+import static org.junit.Assert.*;
+
+import com.sepherot.fcs.data.SearchResult;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class ResultStoreTests {
+    private static final List<String> TERMS = Arrays.asList("sed", "lorem");
+
+    @Test
+    public void add_multipleFiles_sortedByPathAndTerm() {
+        // Arrange
+        ResultStore store = new ResultStore();
+
+        // Act
+        store.add(new FileResults("b.txt", TERMS, true, new int[][] {{2, 3}, null}));
+        store.add(new FileResults("a.txt", TERMS, true, new int[][] {{5}, {1}}));
+
+        // Assert
+        assertEquals(2, store.getFileCount());
+        assertEquals(2, store.getTermCount());
+        assertEquals(4, store.getMatchCount());
+        int[] files = store.sortedFiles();
+        int[] terms = store.sortedTerms();
+        assertEquals("a.txt", store.getFile(files[0]));
+        assertEquals("b.txt", store.getFile(files[1]));
+        assertEquals("lorem", store.getTerm(terms[0]));
+        assertEquals("sed", store.getTerm(terms[1]));
+        assertArrayEquals(new int[] {1}, store.getLines(files[0], terms[0]));
+        assertNull(store.getLines(files[1], terms[0]));
+        assertArrayEquals(new int[] {2, 3}, store.getLines(files[1], terms[1]));
+    }
+
+    @Test
+    public void add_noMatches_fileNotStored() {
+        // Arrange
+        ResultStore store = new ResultStore();
+
+        // Act
+        store.add(new FileResults("a.txt", TERMS, true, new int[][] {null, null}));
+
+        // Assert
+        assertEquals(0, store.getFileCount());
+        assertEquals(0, store.getTermCount());
+    }
+
+    @Test
+    public void add_sameFileTwice_mergeLines() {
+        // Arrange
+        ResultStore store = new ResultStore();
+
+        // Act
+        store.add(new FileResults("a.txt", TERMS, true, new int[][] {{1, 4}, null}));
+        store.add(new FileResults("a.txt", TERMS, true, new int[][] {{2, 4}, null}));
+
+        // Assert
+        assertEquals(1, store.getFileCount());
+        assertArrayEquals(new int[] {1, 2, 4}, store.getLines(0, 0));
+    }
+
+    @Test
+    public void toSearchResults_withAndWithoutLines_createResults() {
+        // Arrange
+        ResultStore store = new ResultStore();
+        store.add(new FileResults("a.txt", TERMS, true, new int[][] {{2, 3}, null}));
+        store.add(new FileResults("b.bin", TERMS, false, new int[][] {new int[0], null}));
+
+        // Act
+        List<SearchResult> results = store.toSearchResults();
+
+        // Assert
+        assertEquals(3, results.size());
+        assertEquals("a.txt", results.get(0).getFile());
+        assertEquals("sed", results.get(0).getTerm());
+        assertEquals(2, results.get(0).getLineNumber().intValue());
+        assertEquals(3, results.get(1).getLineNumber().intValue());
+        assertEquals("b.bin", results.get(2).getFile());
+        assertNull(results.get(2).getLineNumber());
+    }
+}
@@ -0,0 +1,176 @@
+package com.sepherot.fcs;
+
+import static org.junit.Assert.*;
+
+import com.sepherot.fcs.data.BinaryMode;
+import com.sepherot.fcs.data.SearchConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class SearchCorpusTests {
+    private static final long SEED = 42;
+
+    private Path root;
+
+    public SearchCorpusTests() throws IOException {
+        root = Files.createTempDirectory("corpus").toAbsolutePath();
+    }
+
+    @After
+    public void removeTestDirectory() throws IOException {
+        File f = root.toFile();
+        if(f.exists())
+            FileUtils.deleteDirectory(f);
+    }
+
+    /**
+     * Create configuration searching the corpus for all terms, with line numbers and full paths
+     *
+     * @param corpus Generated corpus
+     * @return Configuration
+     */
+    private static SearchConfiguration createConfig(CorpusGenerator.Corpus corpus) {
+        SearchConfiguration config = new SearchConfiguration();
+        config.setSearchTerms(corpus.getTerms());
+        config.setRootDirectory(corpus.getRoot().toString());
+        config.setExtensions(new ArrayList<>());
+        config.setRecursive(true);
+        config.setShowLines(true);
+        config.setLongPaths(true);
+        return config;
+    }
+
+    /**
+     * Parse the output of a search with line numbers back into lines by file by term
+     *
+     * @param output Output of the search
+     * @return Lines by file by term, 0 for binary files which only report a match
+     */
+    private static Map<String, Map<String, List<Integer>>> parse(String output) {
+        Map<String, Map<String, List<Integer>>> results = new TreeMap<>();
+        Map<String, List<Integer>> files = null;
+        String file = null;
+
+        for(String line: output.split("\\R")) {
+            if(line.startsWith(">> ")) {
+                files = results.computeIfAbsent(line.substring(3), k -> new TreeMap<>());
+            } else if(line.startsWith("    ")) {
+                List<Integer> lines = new ArrayList<>();
+                String numbers = line.trim();
+                if(numbers.startsWith("[")) {
+                    for(String number: numbers.substring(1, numbers.length() - 1).split(", "))
+                        lines.add(Integer.valueOf(number));
+                } else {
+                    lines.add(0);
+                }
+                files.put(file, lines);
+            } else if(line.startsWith("  ")) {
+                file = line.substring(2);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * List all files of a tree relative to its root
+     *
+     * @param dir Root of the tree
+     * @return Sorted relative paths
+     * @throws IOException Walking the tree failed
+     */
+    private static List<Path> listFiles(Path dir) throws IOException {
+        try(Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).map(dir::relativize).sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void search_smallCorpus_findExpectedMatches() throws IOException {
+        // Arrange
+        CorpusGenerator.Corpus corpus = CorpusGenerator.generate(root, CorpusGenerator.Profile.SMALL, SEED);
+
+        // Act
+        String result = new FileContentSearch(createConfig(corpus)).search();
+
+        // Assert
+        assertFalse(corpus.expected(BinaryMode.SKIP).isEmpty());
+        assertEquals(corpus.expected(BinaryMode.SKIP), parse(result));
+    }
+
+    @Test
+    public void search_smallCorpusParallel_findExpectedMatches() throws IOException {
+        // Arrange
+        CorpusGenerator.Corpus corpus = CorpusGenerator.generate(root, CorpusGenerator.Profile.SMALL, SEED);
+        SearchConfiguration config = createConfig(corpus);
+        config.setThreads(4);
+        config.setWalkerThreads(4);
+
+        // Act
+        String result = new FileContentSearch(config).search();
+
+        // Assert
+        assertEquals(corpus.expected(BinaryMode.SKIP), parse(result));
+    }
+
+    @Test
+    public void search_binaryFiles_findExpectedMatches() throws IOException {
+        // Arrange
+        CorpusGenerator.Corpus corpus = CorpusGenerator.generate(root, CorpusGenerator.Profile.SMALL, SEED);
+        SearchConfiguration config = createConfig(corpus);
+
+        for(BinaryMode mode: Arrays.asList(BinaryMode.TEXT, BinaryMode.MATCH_ONLY)) {
+            config.setBinaryMode(mode);
+
+            // Act
+            String result = new FileContentSearch(config).search();
+
+            // Assert
+            assertNotEquals(corpus.expected(BinaryMode.SKIP), corpus.expected(mode));
+            assertEquals(corpus.expected(mode), parse(result));
+        }
+    }
+
+    @Test
+    public void generate_sameSeed_sameCorpus() throws IOException {
+        // Arrange
+        Path first = root.resolve("first");
+        Path second = root.resolve("second");
+
+        // Act
+        CorpusGenerator.generate(first, CorpusGenerator.Profile.SMALL, SEED);
+        CorpusGenerator.generate(second, CorpusGenerator.Profile.SMALL, SEED);
+
+        // Assert
+        List<Path> files = listFiles(first);
+        assertEquals(files, listFiles(second));
+        for(Path file: files)
+            assertTrue(FileUtils.contentEquals(first.resolve(file).toFile(), second.resolve(file).toFile()));
+    }
+
+    @Test
+    public void generate_otherSeed_otherContent() throws IOException {
+        // Arrange
+        Path first = root.resolve("first");
+        Path second = root.resolve("second");
+
+        // Act
+        CorpusGenerator.Corpus result1 = CorpusGenerator.generate(first, CorpusGenerator.Profile.SMALL, SEED);
+        CorpusGenerator.Corpus result2 = CorpusGenerator.generate(second, CorpusGenerator.Profile.SMALL, SEED + 1);
+
+        // Assert
+        assertNotEquals(result1.getBytes(), result2.getBytes());
+    }
+}
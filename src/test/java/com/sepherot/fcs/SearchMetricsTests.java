@@ -0,0 +1,123 @@
+package com.sepherot.fcs;
+
+import static org.junit.Assert.*;
+
+import com.sepherot.fcs.data.SearchConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class SearchMetricsTests {
+    @Test
+    public void register_twice_registerSharedInstance() throws JMException {
+        // Arrange
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        // Act
+        SearchMetrics result = SearchMetrics.register();
+
+        // Assert
+        assertSame(result, SearchMetrics.register());
+        assertTrue(server.isRegistered(new ObjectName(SearchMetrics.OBJECT_NAME)));
+        assertEquals(result.getSearches(), server.getAttribute(new ObjectName(SearchMetrics.OBJECT_NAME), "Searches"));
+    }
+
+    @Test
+    public void searchFinished_hundredSearches_calculatePercentiles() {
+        // Arrange
+        SearchMetrics target = new SearchMetrics();
+
+        // Act
+        for(int i = 1; i <= 100; i++) {
+            target.searchStarted();
+            target.searchFinished(i * 1000000L, 2, 10);
+        }
+
+        // Assert
+        assertEquals(100, target.getSearches());
+        assertEquals(0, target.getActiveSearches());
+        assertEquals(200, target.getFilesScanned());
+        assertEquals(1000, target.getBytesRead());
+        assertEquals(50, target.getLatencyP50Millis(), 0.001);
+        assertEquals(90, target.getLatencyP90Millis(), 0.001);
+        assertEquals(99, target.getLatencyP99Millis(), 0.001);
+        assertEquals(100, target.getLatencyMaxMillis(), 0.001);
+    }
+
+    @Test
+    public void searchFinished_moreThanWindow_forgetOldestSearches() {
+        // Arrange
+        SearchMetrics target = new SearchMetrics();
+        target.searchStarted();
+        target.searchFinished(1000000000L, 0, 0);
+
+        // Act
+        for(int i = 0; i < SearchMetrics.LATENCY_WINDOW; i++) {
+            target.searchStarted();
+            target.searchFinished(1000000L, 0, 0);
+        }
+
+        // Assert
+        assertEquals(SearchMetrics.LATENCY_WINDOW + 1, target.getSearches());
+        assertEquals(1, target.getLatencyMaxMillis(), 0.001);
+    }
+
+    @Test
+    public void getQueueDepth_runningSearches_sumQueues() {
+        // Arrange
+        SearchMetrics target = new SearchMetrics();
+        List<String> first = new ArrayList<>(Arrays.asList("a", "b"));
+        List<String> second = new ArrayList<>(Arrays.asList("c"));
+        target.addQueue(first);
+        target.addQueue(second);
+
+        // Act
+        target.removeQueue(second);
+
+        // Assert
+        assertEquals(2, target.getQueueDepth());
+    }
+
+    @Test
+    public void searchFinished_withCache_countBytesReadOnMiss() throws IOException {
+        // Arrange
+        Path root = Files.createTempDirectory("root");
+        Path file = Files.write(root.resolve("lorem.txt"), "Lorem ipsum dolor sit amet".getBytes());
+        SearchConfiguration config = new SearchConfiguration();
+        config.setSearchTerms(Collections.singletonList("lorem"));
+        config.setRootDirectory(root.toString());
+        config.setExtensions(new ArrayList<>());
+        SearchMetrics target = new SearchMetrics();
+        ContentCache cache = new ContentCache(1024 * 1024, false);
+        target.setCache(cache);
+
+        try {
+            // Act
+            for(int i = 0; i < 2; i++) {
+                FileContentSearch search = new FileContentSearch(config);
+                search.setCache(cache);
+                search.setMetrics(target);
+                search.search();
+            }
+
+            // Assert
+            assertEquals(2, target.getSearches());
+            assertEquals(2, target.getFilesScanned());
+            assertEquals(1, target.getCacheHits());
+            assertEquals(Files.size(file), target.getBytesRead());
+        } finally {
+            FileUtils.deleteDirectory(root.toFile());
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.sepherot.fcs;
+
+import static org.junit.Assert.*;
+
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class SearchServerTests {
+    private Path root;
+    private Path tokenDir;
+    private SearchServer server;
+    private Thread thread;
+
+    @Before
+    public void startServer() throws IOException {
+        root = Files.createTempDirectory("root").toAbsolutePath();
+        Path sub1 = Files.createDirectory(root.resolve("sub1"));
+        Files.write(root.resolve("lorem.txt"), "Lorem ipsum dolor sit amet,\nsed diam voluptua.".getBytes());
+        Files.write(sub1.resolve("amon.py"), "from dataclasses import dataclass\n".getBytes());
+
+        tokenDir = Files.createTempDirectory("token");
+        server = new SearchServer(0, new ContentCache(1024 * 1024, false), tokenDir.resolve("server.token"));
+        thread = new Thread(() -> {
+            try {
+                server.run();
+            } catch (IOException e) {
+                // Server stopped
+            }
+        });
+        thread.start();
+    }
+
+    @After
+    public void stopServer() throws IOException, InterruptedException {
+        server.close();
+        thread.join();
+        FileUtils.deleteDirectory(root.toFile());
+        FileUtils.deleteDirectory(tokenDir.toFile());
+    }
+
+    private int send(String[] args, OutputStream output) throws IOException {
+        return Client.send(server.getPort(), Client.readToken(server.getTokenFile()), root.toString(), args, output);
+    }
+
+    @Test
+    public void send_search_returnResults() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        int result = send(new String[] {"sed", "-l"}, output);
+
+        // Assert
+        assertEquals(SearchServer.STATUS_OK, result);
+        assertTrue(output.toString().contains("lorem.txt"));
+        assertTrue(output.toString().contains("[2]"));
+    }
+
+    @Test
+    public void send_relativeDirectory_resolveAgainstWorkingDirectory() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        int result = send(new String[] {"dataclass", "-d", "sub1"}, output);
+
+        // Assert
+        assertEquals(SearchServer.STATUS_OK, result);
+        assertTrue(output.toString().contains("amon.py"));
+        assertFalse(output.toString().contains("lorem.txt"));
+    }
+
+    @Test
+    public void send_repeatedSearch_sameResult() throws IOException {
+        // Arrange
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        send(new String[] {"import", "-e", "py"}, first);
+
+        // Act
+        send(new String[] {"import", "-e", "py"}, second);
+
+        // Assert
+        assertEquals(first.toString(), second.toString());
+        assertTrue(second.toString().contains("amon.py"));
+    }
+
+    @Test
+    public void send_invalidArguments_returnError() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        int result = send(new String[] {"sed", "--help"}, output);
+
+        // Assert
+        assertEquals(SearchServer.STATUS_ERROR, result);
+        assertTrue(output.toString().contains("--help"));
+    }
+
+    @Test
+    public void send_abbreviatedHelp_returnErrorAndKeepRunning() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        int result = send(new String[] {"sed", "--hel"}, output);
+        int next = send(new String[] {"sed"}, new ByteArrayOutputStream());
+
+        // Assert
+        assertEquals(SearchServer.STATUS_ERROR, result);
+        assertTrue(output.toString().contains("--help"));
+        assertEquals(SearchServer.STATUS_OK, next);
+    }
+
+    @Test
+    public void send_streamedSearch_returnResultsAndStatus() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        int result = send(new String[] {"sed", "-l", "--stream"}, output);
+
+        // Assert
+        assertEquals(SearchServer.STATUS_OK, result);
+        assertTrue(output.toString().contains("lorem.txt"));
+    }
+
+    @Test
+    public void send_searchFailsWhileStreaming_returnError() throws IOException, InterruptedException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SearchServer failing = new SearchServer(0, null, tokenDir.resolve("failing.token")) {
+            @Override
+            protected FileContentSearch createSearch(String workingDirectory, String[] args)
+                    throws ParseException, IOException {
+                return new FileContentSearch(super.createSearch(workingDirectory, args).getConfig()) {
+                    @Override
+                    public void search(Writer out) throws IOException {
+                        out.write("partial results");
+                        out.flush();
+                        throw new IllegalStateException("Search failed");
+                    }
+                };
+            }
+        };
+        Thread failingThread = new Thread(() -> {
+            try {
+                failing.run();
+            } catch (IOException e) {
+                // Server stopped
+            }
+        });
+        failingThread.start();
+
+        try {
+            // Act
+            int result = Client.send(failing.getPort(), Client.readToken(failing.getTokenFile()), root.toString(),
+                    new String[] {"sed", "--stream"}, output);
+
+            // Assert
+            assertEquals(SearchServer.STATUS_ERROR, result);
+            assertEquals("partial resultsSearch failed", output.toString());
+        } finally {
+            failing.close();
+            failingThread.join();
+        }
+    }
+
+    @Test
+    public void send_repeatedSearch_readFilesFromCache() throws IOException {
+        // Arrange
+        send(new String[] {"sed"}, new ByteArrayOutputStream());
+
+        // Act
+        send(new String[] {"sed"}, new ByteArrayOutputStream());
+
+        // Assert
+        assertEquals(1, server.getCache().getMisses());
+        assertEquals(1, server.getCache().getHits());
+    }
+
+    @Test
+    public void send_wrongToken_returnError() throws IOException {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        int result = Client.send(server.getPort(), "wrong", root.toString(), new String[] {"sed"}, output);
+
+        // Assert
+        assertEquals(SearchServer.STATUS_ERROR, result);
+        assertTrue(output.toString().contains("Invalid token"));
+    }
+
+    @Test
+    public void send_negativeArgumentCount_returnError() throws IOException {
+        // Arrange
+        int status;
+        try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeUTF(Client.readToken(server.getTokenFile()));
+            out.writeUTF(root.toString());
+
+            // Act
+            out.writeInt(-1);
+            out.flush();
+            InputStream in = socket.getInputStream();
+            status = in.read();
+        }
+
+        // Assert
+        assertEquals(SearchServer.STATUS_ERROR, status);
+    }
+
+    @Test
+    public void send_moreDirectoriesThanLimit_dropLeastRecentIndex() throws IOException {
+        // Arrange
+        server.setMaxIndices(1);
+        send(new String[] {"sed"}, new ByteArrayOutputStream());
+
+        // Act
+        int result = send(new String[] {"dataclass", "-d", "sub1"}, new ByteArrayOutputStream());
+
+        // Assert
+        assertEquals(SearchServer.STATUS_OK, result);
+        assertEquals(1, server.getIndexCount());
+    }
+}
@@ -0,0 +1,55 @@
+package com.sepherot.fcs;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SearchStatsTests {
+    @Test
+    public void addFile_differentSizes_countPerBucket() {
+        // Arrange
+        SearchStats target = new SearchStats();
+
+        // Act
+        target.addFile(100, 5000);
+        target.addFile(1000, 50000);
+        target.addFile(10 * 1024 * 1024, 2000000000L);
+
+        // Assert
+        String result = target.toJson();
+        assertEquals(3, target.getFilesSearched());
+        assertTrue(result.contains("{\"maxSize\":1024,\"files\":2,\"timeNanos\":55000,\"latencies\":{\"10us\":1,\"100us\":1,"));
+        assertTrue(result.contains("{\"maxSize\":null,\"files\":1,\"timeNanos\":2000000000,"));
+        assertTrue(result.contains("\"slower\":1}"));
+    }
+
+    @Test
+    public void stopwatch_stop_addTimeToPhase() {
+        // Arrange
+        SearchStats target = new SearchStats();
+        SearchStats.Stopwatch watch = target.stopwatch();
+
+        // Act
+        watch.start();
+        watch.stop(SearchStats.Phase.MATCH);
+
+        // Assert
+        assertTrue(target.getPhaseTime(SearchStats.Phase.MATCH) >= 0);
+        assertEquals(0, target.getPhaseTime(SearchStats.Phase.READ));
+        assertTrue(target.toJson().contains("\"match\":{\"timeNanos\":"));
+    }
+
+    @Test
+    public void getBytesScannedPerSecond_oneSecond_returnBytes() {
+        // Arrange
+        SearchStats target = new SearchStats();
+        target.addBytesScanned(4096);
+
+        // Act
+        target.addWallTime(1000000000L);
+
+        // Assert
+        assertEquals(4096, target.getBytesScannedPerSecond(), 0.001);
+        assertTrue(target.format().contains("Bytes:        0 read, 4096 scanned"));
+    }
+}
@@ -0,0 +1,210 @@
+package com.sepherot.fcs;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TermMatcherTests {
+    private static List<int[]> scanAll(TermMatcher matcher, String content) {
+        List<int[]> matches = new ArrayList<>();
+        matcher.scan(content, (term, line) -> {
+            matches.add(new int[] {term, line});
+            return true;
+        });
+        return matches;
+    }
+
+    @Test
+    public void constructor_notCaseSensitive_lowercaseTerms() {
+        // Act
+        TermMatcher result = new TermMatcher(Arrays.asList("Egon", "OLSEN"), false);
+
+        // Assert
+        assertEquals(Arrays.asList("egon", "olsen"), result.getTerms());
+        assertFalse(result.isCaseSensitive());
+    }
+
+    @Test
+    public void scan_multipleTerms_findAllTerms() {
+        // Arrange
+        TermMatcher target = new TermMatcher(Arrays.asList("egon", "benny", "kjeld"), true);
+
+        // Act
+        List<int[]> result = scanAll(target, "kjeld and egon");
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(2, result.get(0)[0]);
+        assertEquals(0, result.get(1)[0]);
+    }
+
+    @Test
+    public void scan_overlappingTerms_findAllTerms() {
+        // Arrange
+        TermMatcher target = new TermMatcher(Arrays.asList("he", "she", "his", "hers"), true);
+
+        // Act
+        List<int[]> result = scanAll(target, "ushers");
+
+        // Assert
+        assertEquals(3, result.size());
+        assertEquals(1, result.get(0)[0]);
+        assertEquals(0, result.get(1)[0]);
+        assertEquals(3, result.get(2)[0]);
+    }
+
+    @Test
+    public void scan_termHasLineBreak_returnLineOfStart() {
+        // Arrange
+        TermMatcher target = new TermMatcher(Arrays.asList("str\n  "), true);
+
+        // Act
+        List<int[]> result = scanAll(target, "class File:\n  name: str\n  path: str\n  extension: str\n");
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(2, result.get(0)[1]);
+        assertEquals(3, result.get(1)[1]);
+    }
+
+    @Test
+    public void scan_listenerReturnsFalse_stopScan() {
+        // Arrange
+        TermMatcher target = new TermMatcher(Arrays.asList("sed"), true);
+        List<Integer> lines = new ArrayList<>();
+
+        // Act
+        target.scan("sed\nsed\nsed", (term, line) -> {
+            lines.add(line);
+            return false;
+        });
+
+        // Assert
+        assertEquals(1, lines.size());
+        assertEquals(1, lines.get(0).intValue());
+    }
+
+    @Test
+    public void scan_emptyTerm_neverMatches() {
+        // Arrange
+        TermMatcher target = new TermMatcher(Arrays.asList("", "sed"), true);
+
+        // Act
+        List<int[]> result = scanAll(target, "sed");
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(1, result.get(0)[0]);
+    }
+
+    @Test
+    public void scan_notCaseSensitive_matchMixedCase() {
+        // Arrange
+        TermMatcher target = new TermMatcher(Arrays.asList("Egon Olsen", "\u00e4pfel"), false);
+
+        // Act
+        List<int[]> result = scanAll(target, "EGON olsen\n\u00c4PFEL");
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(0, result.get(0)[0]);
+        assertEquals(1, result.get(1)[0]);
+        assertEquals(2, result.get(1)[1]);
+    }
+
+    @Test
+    public void scan_caseSensitive_ignoreOtherCase() {
+        // Arrange
+        TermMatcher target = new TermMatcher(Arrays.asList("Egon"), true);
+
+        // Act
+        List<int[]> result = scanAll(target, "EGON egon");
+
+        // Assert
+        assertEquals(0, result.size());
+    }
+
+    @Test
+    public void scan_termsBetweenLongGaps_findAllWithLines() {
+        // Arrange
+        TermMatcher target = new TermMatcher(Arrays.asList("Sed"), false);
+        StringBuilder content = new StringBuilder();
+        List<Integer> expected = new ArrayList<>();
+        int line = 1;
+        for(int i = 1; i < 200; i++) {
+            for(int j = 0; j < i % 37; j++)
+                content.append('x');
+            if(i % 3 == 0) {
+                content.append("SED");
+                expected.add(line);
+            }
+            if(i % 5 == 0) {
+                content.append('\n');
+                line++;
+            }
+        }
+
+        // Act
+        List<int[]> result = scanAll(target, content.toString());
+
+        // Assert
+        assertEquals(expected.size(), result.size());
+        for(int i = 0; i < expected.size(); i++)
+            assertEquals(expected.get(i).intValue(), result.get(i)[1]);
+    }
+
+    @Test
+    public void scan_notCaseSensitive_matchNonAsciiMixedCase() {
+        // Arrange
+        TermMatcher target = new TermMatcher(Arrays.asList("\u043f\u0440\u0438\u0432\u0435\u0442\u043c\u0438\u0440"), false);
+
+        // Act
+        List<int[]> result = scanAll(target, "x\n\u041f\u0440\u0438\u0432\u0435\u0442\u041c\u0438\u0420");
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(2, result.get(0)[1]);
+    }
+
+    @Test
+    public void scan_notCaseSensitive_characterSplitBetweenChunks() {
+        // Arrange
+        TermMatcher target = new TermMatcher(Arrays.asList("\u00e4pfel"), false);
+        byte[] content = "\u00c4\u00c4PFEL".getBytes(Charset.defaultCharset());
+        TermMatcher.Cursor cursor = target.newCursor();
+        List<Integer> matches = new ArrayList<>();
+        int split = content.length / 2 - 1;
+
+        // Act
+        cursor.scan(ByteBuffer.wrap(content, 0, split), (term, line) -> matches.add(term));
+        cursor.scan(ByteBuffer.wrap(content, split, content.length - split), (term, line) -> matches.add(term));
+
+        // Assert
+        assertEquals(1, matches.size());
+    }
+
+    @Test
+    public void scan_notCaseSensitive_manyLongNonAsciiTerms() {
+        // Arrange
+        List<String> terms = new ArrayList<>();
+        for(int t = 0; t < 200; t++) {
+            StringBuilder term = new StringBuilder();
+            for(int i = 0; i < 16; i++)
+                term.append((char) ('\u0430' + (t + i * 7) % 32));
+            terms.add(term.toString());
+        }
+        TermMatcher target = new TermMatcher(terms, false);
+
+        // Act
+        List<int[]> result = scanAll(target, terms.get(42).toUpperCase());
+
+        // Assert
+        assertTrue(result.stream().anyMatch(m -> m[0] == 42));
+    }
+}
@@ -0,0 +1,224 @@
+package com.sepherot.fcs;
+
+import static org.junit.Assert.*;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class TrigramIndexTests {
+    private Path root;
+    private String fileTxtPath;
+    private String filePyPath;
+    private String fileBinPath;
+
+    public TrigramIndexTests() throws IOException {
+        root = Files.createTempDirectory("root").toAbsolutePath();
+        Path sub1 = Files.createDirectory(root.resolve("sub1"));
+
+        fileTxtPath = root.resolve("lorem.txt").toString();
+        filePyPath = sub1.resolve("amon.py").toString();
+        fileBinPath = sub1.resolve("image.bin").toString();
+
+        Files.write(Paths.get(fileTxtPath), ("Lorem ipsum dolor sit amet, consetetur sadipscing elitr,\n" +
+                "sed diam nonumy eirmod tempor invidunt ut labore et dolore magna aliquyam erat").getBytes());
+        Files.write(Paths.get(filePyPath), ("from dataclasses import dataclass\n" +
+                "import os\n").getBytes());
+        Files.write(Paths.get(fileBinPath), new byte[] {'s', 'e', 'd', 0, 1, 2});
+    }
+
+    @After
+    public void removeTestDirectory() throws IOException {
+        File f = root.toFile();
+        if(f.exists())
+            FileUtils.deleteDirectory(f);
+    }
+
+    @Test
+    public void build_allFiles_returnNumberOfFiles() throws IOException {
+        // Act
+        int result = TrigramIndex.build(root, new DirWalker());
+
+        // Assert
+        assertEquals(3, result);
+        assertTrue(Files.exists(root.resolve(TrigramIndex.INDEX_FILE)));
+    }
+
+    @Test
+    public void build_existingIndex_skipIndexFile() throws IOException {
+        // Arrange
+        TrigramIndex.build(root, new DirWalker());
+
+        // Act
+        int result = TrigramIndex.build(root, new DirWalker());
+
+        // Assert
+        assertEquals(3, result);
+        assertEquals(3, TrigramIndex.open(root).getFileCount());
+    }
+
+    @Test
+    public void candidates_termInOneFile_returnOnlyThatFile() throws IOException {
+        // Arrange
+        TrigramIndex.build(root, new DirWalker());
+        TrigramIndex target = TrigramIndex.open(root);
+
+        // Act
+        List<String> result = target.candidates(Collections.singletonList("dataclass"), true, false);
+
+        // Assert
+        assertEquals(Collections.singletonList(filePyPath), result);
+    }
+
+    @Test
+    public void candidates_multipleTermsNotCaseSensitive_returnFilesOfAllTerms() throws IOException {
+        // Arrange
+        TrigramIndex.build(root, new DirWalker());
+        TrigramIndex target = TrigramIndex.open(root);
+
+        // Act
+        List<String> result = target.candidates(Arrays.asList("lorem", "import os"), false, false);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertTrue(result.contains(fileTxtPath));
+        assertTrue(result.contains(filePyPath));
+    }
+
+    @Test
+    public void candidates_termNotInAnyFile_returnNoFiles() throws IOException {
+        // Arrange
+        TrigramIndex.build(root, new DirWalker());
+        TrigramIndex target = TrigramIndex.open(root);
+
+        // Act
+        List<String> result = target.candidates(Collections.singletonList("Egon Olsen"), false, false);
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void candidates_shortTerm_returnAllTextFiles() throws IOException {
+        // Arrange
+        TrigramIndex.build(root, new DirWalker());
+        TrigramIndex target = TrigramIndex.open(root);
+
+        // Act
+        List<String> result = target.candidates(Collections.singletonList("os"), false, false);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertFalse(result.contains(fileBinPath));
+    }
+
+    @Test
+    public void candidates_binaryFilesSearched_includeBinaryFiles() throws IOException {
+        // Arrange
+        TrigramIndex.build(root, new DirWalker());
+        TrigramIndex target = TrigramIndex.open(root);
+
+        // Act
+        List<String> result = target.candidates(Collections.singletonList("dataclass"), false, true);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertTrue(result.contains(fileBinPath));
+    }
+
+    @Test
+    public void candidates_indexedFileChanged_returnChangedFile() throws IOException {
+        // Arrange
+        TrigramIndex.build(root, new DirWalker());
+        Files.write(Paths.get(filePyPath), "zebra\n".getBytes(), StandardOpenOption.APPEND);
+        TrigramIndex target = TrigramIndex.open(root);
+
+        // Act
+        List<String> result = target.candidates(Collections.singletonList("zebra"), false, false);
+
+        // Assert
+        assertEquals(Collections.singletonList(filePyPath), result);
+    }
+
+    @Test(expected = IOException.class)
+    public void open_missingIndex_throwException() throws IOException {
+        // Act
+        TrigramIndex.open(root);
+    }
+
+    @Test
+    public void update_noIndex_indexAllFiles() throws IOException {
+        // Act
+        int result = TrigramIndex.update(root, new DirWalker());
+
+        // Assert
+        assertEquals(3, result);
+        assertEquals(3, TrigramIndex.open(root).getFileCount());
+    }
+
+    @Test
+    public void update_unchangedFiles_readNoFiles() throws IOException {
+        // Arrange
+        TrigramIndex.build(root, new DirWalker());
+
+        // Act
+        int result = TrigramIndex.update(root, new DirWalker());
+
+        // Assert
+        assertEquals(0, result);
+        TrigramIndex target = TrigramIndex.open(root);
+        assertEquals(Collections.singletonList(filePyPath),
+                target.candidates(Collections.singletonList("dataclass"), true, false));
+    }
+
+    @Test
+    public void update_changedAndNewFiles_readOnlyThoseFiles() throws IOException {
+        // Arrange
+        TrigramIndex.build(root, new DirWalker());
+        Files.write(Paths.get(fileTxtPath), "Egon Olsen has a plan".getBytes());
+        Files.setLastModifiedTime(Paths.get(fileTxtPath), FileTime.fromMillis(0));
+        String fileLogPath = root.resolve("sub1").resolve("amarth.log").toString();
+        Files.write(Paths.get(fileLogPath), "2018-07-04 21:29:53 INFO - New plan".getBytes());
+
+        // Act
+        int result = TrigramIndex.update(root, new DirWalker());
+
+        // Assert
+        assertEquals(2, result);
+        TrigramIndex target = TrigramIndex.open(root);
+        assertEquals(4, target.getFileCount());
+        assertTrue(target.candidates(Collections.singletonList("lorem"), false, false).isEmpty());
+        assertEquals(2, target.candidates(Collections.singletonList("plan"), false, false).size());
+        assertEquals(Collections.singletonList(filePyPath),
+                target.candidates(Collections.singletonList("dataclass"), true, false));
+    }
+
+    @Test
+    public void update_deletedFile_removeFromIndex() throws IOException {
+        // Arrange
+        TrigramIndex.build(root, new DirWalker());
+        Files.delete(Paths.get(filePyPath));
+
+        // Act
+        int result = TrigramIndex.update(root, new DirWalker());
+
+        // Assert
+        assertEquals(0, result);
+        TrigramIndex target = TrigramIndex.open(root);
+        assertEquals(2, target.getFileCount());
+        assertTrue(target.candidates(Collections.singletonList("dataclass"), true, false).isEmpty());
+        assertEquals(Collections.singletonList(fileTxtPath),
+                target.candidates(Collections.singletonList("lorem"), false, false));
+    }
+}